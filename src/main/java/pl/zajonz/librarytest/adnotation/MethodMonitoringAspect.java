@@ -7,8 +7,13 @@ import org.aspectj.lang.annotation.Aspect;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import pl.zajonz.librarytest.model.ExecutionMeasurement;
 import pl.zajonz.librarytest.model.User;
-import pl.zajonz.librarytest.repository.UserRepository;
+import pl.zajonz.librarytest.monitoring.ExecutionProbe;
+import pl.zajonz.librarytest.monitoring.MethodLatencyRegistry;
+import pl.zajonz.librarytest.monitoring.MonitoredMethodEvent;
+import pl.zajonz.librarytest.monitoring.MonitoringSampler;
+import pl.zajonz.librarytest.monitoring.SqlStatementBudget;
 import pl.zajonz.librarytest.service.MessageSender;
 
 import java.time.LocalDateTime;
@@ -18,30 +23,62 @@ import java.time.LocalDateTime;
 @RequiredArgsConstructor
 public class MethodMonitoringAspect {
 
-    private final UserRepository userRepository;
+    private static final User UNKNOWN_USER = User.builder()
+            .id(0)
+            .email("unknown")
+            .build();
+
     private final MessageSender messageSender;
+    private final MethodLatencyRegistry methodLatencyRegistry;
+    private final MonitoringSampler monitoringSampler;
+    private final SqlStatementBudget sqlStatementBudget;
 
-    @Around("@annotation(MonitorMethod)")
-    public Object measureExecutionTime(ProceedingJoinPoint joinPoint) throws Throwable {
+    @Around("@annotation(monitorMethod)")
+    public Object measureExecutionTime(ProceedingJoinPoint joinPoint, MonitorMethod monitorMethod) throws Throwable {
         LocalDateTime startMethodDateTime = LocalDateTime.now();
+        String classMethodName = joinPoint.getSignature().toShortString();
 
-        long startTime = System.currentTimeMillis();
-        Object result = joinPoint.proceed();
-        long executionTime = System.currentTimeMillis() - startTime;
+        MonitoredMethodEvent event = new MonitoredMethodEvent();
+        event.begin();
+        ExecutionProbe probe = ExecutionProbe.start();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            methodLatencyRegistry.record(classMethodName, probe.elapsedNanos());
+            event.setFailed(true);
+            commit(event, classMethodName, -1);
+            throw e;
+        }
+        ExecutionMeasurement measurement = probe.stop();
+        methodLatencyRegistry.record(classMethodName, measurement.getExecutionTimeNanos());
+        commit(event, classMethodName, measurement.getSqlStatementCount());
 
-        User user = getUser();
-        messageSender.sendPerformanceInfo(user, executionTime,
-                joinPoint.getSignature().toShortString(), startMethodDateTime);
+        boolean withinSqlBudget = sqlStatementBudget.check(classMethodName, measurement);
+        if (!withinSqlBudget
+                || monitoringSampler.shouldReport(classMethodName, monitorMethod, measurement.getExecutionTimeNanos())) {
+            User user = getUser();
+            messageSender.sendPerformanceInfo(user, measurement, classMethodName, startMethodDateTime);
+        }
 
         return result;
     }
 
+    private void commit(MonitoredMethodEvent event, String classMethodName, long sqlStatementCount) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.setClassMethodName(classMethodName);
+            event.setUser(getUser().getUsername());
+            event.setSqlStatementCount(sqlStatementCount);
+            event.commit();
+        }
+    }
+
     private User getUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User unknownUser = User.builder()
-                .id(0)
-                .email("unknown")
-                .build();
-        return userRepository.findByUsername(authentication.getName()).orElse(unknownUser);
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            return user;
+        }
+        return UNKNOWN_USER;
     }
 }
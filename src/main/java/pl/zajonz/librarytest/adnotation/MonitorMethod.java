@@ -8,4 +8,11 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface MonitorMethod {
-}
\ No newline at end of file
+
+    double sampleRate() default 1.0;
+
+    boolean adaptive() default false;
+
+    long slowerThanMs() default 0;
+
+}
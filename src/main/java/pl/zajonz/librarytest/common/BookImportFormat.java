@@ -0,0 +1,28 @@
+package pl.zajonz.librarytest.common;
+
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+
+public enum BookImportFormat {
+
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String contentType;
+
+    BookImportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static BookImportFormat of(MediaType mediaType) {
+        return Arrays.stream(values())
+                .filter(format -> MediaType.valueOf(format.contentType).isCompatibleWith(mediaType))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported import format: " + mediaType));
+    }
+}
@@ -0,0 +1,21 @@
+package pl.zajonz.librarytest.common;
+
+/**
+ * How concurrent borrow requests for the same book are serialized, selected with the
+ * {@code borrow-concurrency} property.
+ */
+public enum BorrowConcurrency {
+
+    /** {@code SELECT ... FOR UPDATE} on the book row for the whole transaction. */
+    PESSIMISTIC,
+    /** Plain read, version check on commit and a bounded number of retries on conflict. */
+    OPTIMISTIC,
+    /** One conditional {@code UPDATE} that only succeeds while the book is ready and not blocked. */
+    CONDITIONAL_UPDATE,
+    /**
+     * In-JVM lock striped by book id, taken before a connection is borrowed from the pool. It only
+     * serializes borrows on one node, so version conflicts are still retried like {@link #OPTIMISTIC}.
+     */
+    STRIPED_LOCK
+
+}
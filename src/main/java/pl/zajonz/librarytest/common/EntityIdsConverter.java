@@ -0,0 +1,45 @@
+package pl.zajonz.librarytest.common;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Stores a list of entity ids as a JSON array, so a bulk operation fits in one column.
+ */
+@Converter
+public class EntityIdsConverter implements AttributeConverter<List<Integer>, String> {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<List<Integer>> ENTITY_IDS = new TypeReference<>() {
+    };
+
+    @Override
+    public String convertToDatabaseColumn(List<Integer> entityIds) {
+        if (entityIds == null) {
+            return null;
+        }
+        try {
+            return OBJECT_MAPPER.writeValueAsString(entityIds);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public List<Integer> convertToEntityAttribute(String column) {
+        if (column == null) {
+            return null;
+        }
+        try {
+            return OBJECT_MAPPER.readValue(column, ENTITY_IDS);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package pl.zajonz.librarytest.common;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJackson2MessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Jackson converter for binary formats such as Smile or CBOR. The base class reads and writes
+ * through strings, which binary factories do not support, so bodies are handled as raw bytes
+ * while the {@code __TypeId__} headers are kept as for JSON.
+ */
+class JacksonBinaryMessageConverter extends AbstractJackson2MessageConverter {
+
+    JacksonBinaryMessageConverter(ObjectMapper objectMapper, MimeType contentType) {
+        super(objectMapper, contentType, "*");
+    }
+
+    @Override
+    protected Message createMessage(Object object, MessageProperties messageProperties, Type genericType) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(object);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to convert message content", e);
+        }
+        messageProperties.setContentType(getSupportedContentType().toString());
+        messageProperties.setContentLength(body.length);
+        JavaType javaType = objectMapper.constructType(genericType == null ? object.getClass() : genericType);
+        getJavaTypeMapper().fromJavaType(javaType, messageProperties);
+        return new Message(body, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message, Object conversionHint) {
+        MessageProperties properties = message.getMessageProperties();
+        if (properties == null || properties.getContentType() == null
+                || !getSupportedContentType().includes(MimeType.valueOf(properties.getContentType()))) {
+            return message.getBody();
+        }
+        try {
+            return objectMapper.readValue(message.getBody(), getJavaTypeMapper().toJavaType(properties));
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to convert message content", e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package pl.zajonz.librarytest.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.amqp.support.converter.AbstractJackson2MessageConverter;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.util.MimeType;
+
+import java.util.function.Supplier;
+
+public enum MessageEncoding {
+
+    JSON("application/json", ObjectMapper::new),
+    SMILE("application/x-jackson-smile", () -> new ObjectMapper(new SmileFactory())),
+    CBOR("application/cbor", () -> new ObjectMapper(new CBORFactory()));
+
+    private final String contentType;
+    private final Supplier<ObjectMapper> objectMapperFactory;
+
+    MessageEncoding(String contentType, Supplier<ObjectMapper> objectMapperFactory) {
+        this.contentType = contentType;
+        this.objectMapperFactory = objectMapperFactory;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public AbstractJackson2MessageConverter createConverter() {
+        ObjectMapper mapper = objectMapperFactory.get().findAndRegisterModules();
+        if (this == JSON) {
+            return new Jackson2JsonMessageConverter(mapper);
+        }
+        return new JacksonBinaryMessageConverter(mapper, MimeType.valueOf(contentType));
+    }
+}
@@ -0,0 +1,160 @@
+package pl.zajonz.librarytest.configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import pl.zajonz.librarytest.event.OutboxRelay;
+import pl.zajonz.librarytest.monitoring.MonitoringSampler;
+import pl.zajonz.librarytest.monitoring.SqlStatementBudget;
+import pl.zajonz.librarytest.service.BookImportServiceImpl;
+import pl.zajonz.librarytest.service.BrokerHealthGate;
+import pl.zajonz.librarytest.service.InProcessMessageTransport;
+import pl.zajonz.librarytest.service.MessageSpool;
+import pl.zajonz.librarytest.service.PerformanceInfoBatchPublisher;
+import pl.zajonz.librarytest.service.PublisherConfirmTracker;
+import pl.zajonz.librarytest.service.TelemetryLane;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public MeterBinder messageSpoolMetrics(MessageSpool messageSpool, BrokerHealthGate brokerHealthGate) {
+        return registry -> {
+            Gauge.builder("library.message.spool.size", messageSpool, MessageSpool::getSizeBytes)
+                    .baseUnit(BaseUnits.BYTES)
+                    .register(registry);
+            Gauge.builder("library.message.spool.pending", messageSpool, MessageSpool::getPendingCount)
+                    .register(registry);
+            TimeGauge.builder("library.message.spool.lag", messageSpool, TimeUnit.MILLISECONDS,
+                            MessageSpool::getLagMillis)
+                    .register(registry);
+            FunctionCounter.builder("library.message.spool.drained", messageSpool, MessageSpool::getDrainedCount)
+                    .register(registry);
+            FunctionCounter.builder("library.message.spool.dropped", messageSpool, MessageSpool::getDroppedCount)
+                    .register(registry);
+            Gauge.builder("library.broker.degraded", brokerHealthGate, gate -> gate.isDegraded() ? 1 : 0)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder publisherConfirmMetrics(PublisherConfirmTracker publisherConfirmTracker) {
+        return registry -> {
+            Gauge.builder("library.rabbit.confirms.outstanding", publisherConfirmTracker,
+                            PublisherConfirmTracker::getOutstandingCount)
+                    .register(registry);
+            FunctionCounter.builder("library.rabbit.confirms.confirmed", publisherConfirmTracker,
+                            PublisherConfirmTracker::getConfirmedCount)
+                    .register(registry);
+            FunctionCounter.builder("library.rabbit.confirms.retried", publisherConfirmTracker,
+                            PublisherConfirmTracker::getRetriedCount)
+                    .register(registry);
+            FunctionCounter.builder("library.rabbit.confirms.timeouts", publisherConfirmTracker,
+                            PublisherConfirmTracker::getTimedOutCount)
+                    .register(registry);
+            FunctionCounter.builder("library.rabbit.confirms.failed", publisherConfirmTracker,
+                            PublisherConfirmTracker::getFailedCount)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder outboxMetrics(OutboxRelay outboxRelay) {
+        return registry -> {
+            Gauge.builder("library.outbox.pending", outboxRelay, OutboxRelay::getPendingCount)
+                    .register(registry);
+            FunctionCounter.builder("library.outbox.relayed", outboxRelay, OutboxRelay::getRelayedCount)
+                    .register(registry);
+            FunctionCounter.builder("library.outbox.coalesced", outboxRelay, OutboxRelay::getCoalescedCount)
+                    .register(registry);
+            FunctionCounter.builder("library.outbox.relay.triggered", outboxRelay, OutboxRelay::getTriggeredCount)
+                    .register(registry);
+            FunctionCounter.builder("library.outbox.relay.failed.runs", outboxRelay, OutboxRelay::getFailedRunCount)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder telemetryLaneMetrics(TelemetryLane telemetryLane) {
+        return registry -> {
+            Gauge.builder("library.telemetry.lane.queue.depth", telemetryLane, TelemetryLane::getQueueDepth)
+                    .register(registry);
+            FunctionCounter.builder("library.telemetry.lane.dropped", telemetryLane, TelemetryLane::getDroppedCount)
+                    .register(registry);
+            FunctionCounter.builder("library.telemetry.lane.failed", telemetryLane, TelemetryLane::getFailedCount)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "message-transport", havingValue = "in-process")
+    public MeterBinder inProcessTransportMetrics(InProcessMessageTransport transport) {
+        return registry -> {
+            Gauge.builder("library.transport.in-process.queue.depth", transport,
+                            InProcessMessageTransport::getQueueDepth)
+                    .register(registry);
+            FunctionCounter.builder("library.transport.in-process.delivered", transport,
+                            InProcessMessageTransport::getDeliveredCount)
+                    .register(registry);
+            FunctionCounter.builder("library.transport.in-process.rejected", transport,
+                            InProcessMessageTransport::getRejectedCount)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder bookImportMetrics(BookImportServiceImpl bookImportService) {
+        return registry -> {
+            FunctionCounter.builder("library.book.import.imported", bookImportService,
+                            BookImportServiceImpl::getImportedCount)
+                    .register(registry);
+            FunctionCounter.builder("library.book.import.rejected", bookImportService,
+                            BookImportServiceImpl::getRejectedCount)
+                    .register(registry);
+            FunctionCounter.builder("library.book.import.failed", bookImportService,
+                            BookImportServiceImpl::getFailedCount)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder performanceInfoMetrics(PerformanceInfoBatchPublisher batchPublisher,
+                                              MonitoringSampler monitoringSampler,
+                                              SqlStatementBudget sqlStatementBudget) {
+        return registry -> {
+            Gauge.builder("library.performance.batch.queue.depth", batchPublisher,
+                            PerformanceInfoBatchPublisher::getQueueDepth)
+                    .register(registry);
+            FunctionCounter.builder("library.performance.batch.dropped", batchPublisher,
+                            PerformanceInfoBatchPublisher::getDroppedCount)
+                    .register(registry);
+            FunctionCounter.builder("library.performance.batch.published", batchPublisher,
+                            PerformanceInfoBatchPublisher::getPublishedCount)
+                    .register(registry);
+            FunctionCounter.builder("library.performance.batch.failed", batchPublisher,
+                            PerformanceInfoBatchPublisher::getFailedCount)
+                    .register(registry);
+            FunctionCounter.builder("library.performance.sampling.skipped", monitoringSampler,
+                            MonitoringSampler::getSkippedCount)
+                    .register(registry);
+            FunctionCounter.builder("library.sql.statement.budget.exceeded", sqlStatementBudget,
+                            SqlStatementBudget::getExceededCount)
+                    .register(registry);
+        };
+    }
+
+}
@@ -1,15 +1,15 @@
 package pl.zajonz.librarytest.configuration;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import pl.zajonz.librarytest.common.MessageEncoding;
 
 @Configuration
 public class RabbitMqConfiguration {
@@ -20,17 +20,33 @@ public class RabbitMqConfiguration {
     private String performanceInfoQueueName;
     @Value("${info-queue}")
     private String infoQueueName;
+    @Value("${email-info-batch-queue:info-email-batch}")
+    private String emailInfoBatchQueueName;
+    @Value("${performance-info-batch-queue:info-performance-batch}")
+    private String performanceInfoBatchQueueName;
+    @Value("${message-encoding:json}")
+    private MessageEncoding messageEncoding;
 
     @Bean
     Queue emailInfoQueue() {
         return new Queue(emailInfoQueueName, false);
     }
 
+    @Bean
+    Queue emailInfoBatchQueue() {
+        return new Queue(emailInfoBatchQueueName, false);
+    }
+
     @Bean
     Queue performanceInfoQueue() {
         return new Queue(performanceInfoQueueName, false);
     }
 
+    @Bean
+    Queue performanceInfoBatchQueue() {
+        return new Queue(performanceInfoBatchQueueName, false);
+    }
+
     @Bean
     Queue databaseInfoQueue() {
         return new Queue(infoQueueName, false);
@@ -38,8 +54,12 @@ public class RabbitMqConfiguration {
 
     @Bean
     public MessageConverter converter() {
-        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
-        return new Jackson2JsonMessageConverter(mapper);
+        ContentTypeDelegatingMessageConverter converter =
+                new ContentTypeDelegatingMessageConverter(messageEncoding.createConverter());
+        for (MessageEncoding encoding : MessageEncoding.values()) {
+            converter.addDelegate(encoding.getContentType(), encoding.createConverter());
+        }
+        return converter;
     }
 
     @Bean
@@ -30,9 +30,14 @@ public class SecurityConfiguration {
                     auth.requestMatchers(HttpMethod.GET, "/api/v1/users/**").hasRole("EMPLOYEE");
                     auth.requestMatchers("/h2").permitAll();
                     auth.requestMatchers(HttpMethod.POST, "/api/v1/books").hasRole("EMPLOYEE");
+                    auth.requestMatchers(HttpMethod.POST, "/api/v1/books/import").hasRole("EMPLOYEE");
                     auth.requestMatchers("/api/v1/books/{id}/block").hasRole("EMPLOYEE");
                     auth.requestMatchers("/api/v1/books/{id}/borrow").hasRole("CUSTOMER");
+                    auth.requestMatchers(HttpMethod.POST, "/api/v1/books/checkout").hasRole("CUSTOMER");
                     auth.requestMatchers(HttpMethod.GET, "/api/v1/books/**").permitAll();
+                    auth.requestMatchers("/api/v1/monitoring/**").hasRole("EMPLOYEE");
+                    auth.requestMatchers("/actuator/health").permitAll();
+                    auth.requestMatchers("/actuator/**").hasRole("EMPLOYEE");
                     auth.anyRequest().authenticated();
                 })
                 .userDetailsService(userService)
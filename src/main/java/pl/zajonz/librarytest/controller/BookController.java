@@ -5,17 +5,28 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import pl.zajonz.librarytest.adnotation.MonitorMethod;
+import pl.zajonz.librarytest.common.BookImportFormat;
 import pl.zajonz.librarytest.mapper.BookMapper;
+import pl.zajonz.librarytest.model.BookImportReport;
 import pl.zajonz.librarytest.model.DTO.BookDto;
+import pl.zajonz.librarytest.model.DTO.CheckoutResultDto;
+import pl.zajonz.librarytest.model.DTO.ReturnResultDto;
+import pl.zajonz.librarytest.model.command.CheckoutBooksCommand;
 import pl.zajonz.librarytest.model.command.CreateBookCommand;
+import pl.zajonz.librarytest.model.command.ReturnBooksCommand;
+import pl.zajonz.librarytest.service.BookImportService;
 import pl.zajonz.librarytest.service.BookService;
 
+import java.io.InputStream;
 import java.security.Principal;
 import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequestMapping("api/v1/books")
@@ -23,6 +34,7 @@ import java.time.LocalDate;
 public class BookController {
 
     private final BookService bookService;
+    private final BookImportService bookImportService;
     private final BookMapper bookMapper;
 
     @PostMapping
@@ -33,6 +45,14 @@ public class BookController {
                 bookMapper.toBookEntity(command), command.getCategoryId()));
     }
 
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    @ResponseStatus(HttpStatus.CREATED)
+    @MonitorMethod
+    public BookImportReport importBooks(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                        InputStream body) {
+        return bookImportService.importBooks(body, BookImportFormat.of(contentType));
+    }
+
     @PatchMapping("/{id}/block")
     @ResponseStatus(HttpStatus.ACCEPTED)
     @MonitorMethod
@@ -47,6 +67,15 @@ public class BookController {
         return bookMapper.fromBookEntity(bookService.borrowBook(principal.getName(), id, to));
     }
 
+    @PostMapping("/checkout")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @MonitorMethod
+    public List<CheckoutResultDto> checkoutBooks(Principal principal, @RequestBody @Valid CheckoutBooksCommand command) {
+        return bookService.checkoutBooks(principal.getName(), command.getBookIds(), command.getTo()).stream()
+                .map(bookMapper::fromCheckoutResult)
+                .toList();
+    }
+
     @PatchMapping("/{id}/return")
     @ResponseStatus(HttpStatus.ACCEPTED)
     @MonitorMethod
@@ -54,8 +83,17 @@ public class BookController {
         return bookMapper.fromBookEntity(bookService.returnBook(auth.getName(), auth.getAuthorities().toString(), id));
     }
 
-    @GetMapping
+    @PostMapping("/returns")
+    @ResponseStatus(HttpStatus.ACCEPTED)
     @MonitorMethod
+    public List<ReturnResultDto> returnBooks(Authentication auth, @RequestBody @Valid ReturnBooksCommand command) {
+        return bookService.returnBooks(auth.getName(), auth.getAuthorities().toString(), command.getBookIds()).stream()
+                .map(bookMapper::fromReturnResult)
+                .toList();
+    }
+
+    @GetMapping
+    @MonitorMethod(adaptive = true)
     public Page<BookDto> getAll(@PageableDefault Pageable pageable) {
         return bookService.getAll(pageable).map(bookMapper::fromBookEntity);
     }
@@ -0,0 +1,29 @@
+package pl.zajonz.librarytest.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import pl.zajonz.librarytest.model.DTO.LatencyStatsDto;
+import pl.zajonz.librarytest.monitoring.MethodLatencyRegistry;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/monitoring")
+@RequiredArgsConstructor
+public class MonitoringController {
+
+    private final MethodLatencyRegistry methodLatencyRegistry;
+
+    @GetMapping("/latency")
+    public List<LatencyStatsDto> getLatency() {
+        return methodLatencyRegistry.getStats();
+    }
+
+    @DeleteMapping("/latency")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void resetLatency() {
+        methodLatencyRegistry.reset();
+    }
+
+}
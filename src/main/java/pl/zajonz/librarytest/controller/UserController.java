@@ -37,7 +37,7 @@ public class UserController {
     }
 
     @GetMapping
-    @MonitorMethod
+    @MonitorMethod(adaptive = true)
     public Page<UserDto> getAll(@PageableDefault Pageable pageable) {
         return userService.getAll(pageable).map(userMapper::fromUserEntity);
     }
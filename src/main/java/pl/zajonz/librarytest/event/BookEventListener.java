@@ -1,22 +1,49 @@
 package pl.zajonz.librarytest.event;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
 import pl.zajonz.librarytest.event.model.BookEvent;
-import pl.zajonz.librarytest.service.MessageSender;
+import pl.zajonz.librarytest.model.OutboxEvent;
+import pl.zajonz.librarytest.repository.OutboxEventRepository;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
 
 @Service
 @RequiredArgsConstructor
 public class BookEventListener {
 
-    private final MessageSender messageSender;
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxRelay outboxRelay;
+    private final ObjectMapper objectMapper;
 
-    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
     public void handleBookEvent(BookEvent event) {
-        messageSender.sendEmailInfo(event.getBook());
+        outboxEventRepository.save(OutboxEvent.builder()
+                .type(OutboxEvent.OutboxEventType.EMAIL_INFO)
+                .bookId(event.getBook().id())
+                .payload(toJson(event))
+                .traceId(event.getTraceId())
+                .createdAt(event.getCreatedAt())
+                .committedAt(Instant.now())
+                .build());
+    }
+
+    private String toJson(BookEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event.getBook());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void relayBookEvent(BookEvent event) {
+        outboxRelay.requestDrain();
+    }
 
 }
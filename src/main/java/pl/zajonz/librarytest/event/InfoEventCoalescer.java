@@ -0,0 +1,97 @@
+package pl.zajonz.librarytest.event;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.zajonz.librarytest.event.model.InfoEventKind;
+import pl.zajonz.librarytest.model.AuditMessage;
+import pl.zajonz.librarytest.model.OutboxEvent;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Turns info events from the outbox into audit messages. While enabled, events of the same kind from
+ * one batch are merged into a single message listing all entity ids, and the relay holds a partial
+ * batch back until its oldest info event is {@code info-coalescing-max-delay-ms} old, so a burst of
+ * operations ends up in one message per kind.
+ */
+@Component
+public class InfoEventCoalescer {
+
+    @Value("${info-coalescing-enabled:false}")
+    private boolean enabled;
+
+    @Value("${info-coalescing-max-delay-ms:1000}")
+    private long maxDelayMs;
+
+    public boolean shouldHold(List<OutboxEvent> batch, int batchSize, Instant now) {
+        if (!enabled || batch.isEmpty() || batch.size() >= batchSize) {
+            return false;
+        }
+        OutboxEvent oldest = batch.get(0);
+        return isAuditEvent(oldest)
+                && Duration.between(oldest.getCreatedAt(), now).toMillis() < maxDelayMs;
+    }
+
+    /**
+     * Splits a batch into groups that are sent as one message each. While enabled, all info events of
+     * the same kind are collected at the position of the first one; every other event forms a group of
+     * its own. Bulk operations need no merging, they store one event with all their entity ids.
+     */
+    public List<List<OutboxEvent>> group(List<OutboxEvent> batch) {
+        List<List<OutboxEvent>> groups = new ArrayList<>(batch.size());
+        Map<InfoEventKind, List<OutboxEvent>> byKind = new EnumMap<>(InfoEventKind.class);
+        for (OutboxEvent event : batch) {
+            if (enabled && isAuditEvent(event)) {
+                byKind.computeIfAbsent(event.getInfoKind(), kind -> {
+                    List<OutboxEvent> group = new ArrayList<>();
+                    groups.add(group);
+                    return group;
+                }).add(event);
+            } else {
+                groups.add(new ArrayList<>(List.of(event)));
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Builds the audit message for a group of info events of one kind. The actor and related id are
+     * only kept when every event in the group shares them.
+     */
+    public AuditMessage toAuditMessage(List<OutboxEvent> group) {
+        OutboxEvent first = group.get(0);
+        return AuditMessage.builder()
+                .entityType(first.getInfoKind().getEntityType())
+                .action(first.getInfoKind().getAction())
+                .entityIds(group.stream().flatMap(event -> entityIds(event).stream()).toList())
+                .relatedId(common(group, OutboxEvent::getRelatedId))
+                .actor(common(group, OutboxEvent::getActor))
+                .occurredAt(first.getCreatedAt())
+                .build();
+    }
+
+    public static boolean isAuditEvent(OutboxEvent event) {
+        return event.getType() == OutboxEvent.OutboxEventType.INFO && event.getInfoKind() != null;
+    }
+
+    private static List<Integer> entityIds(OutboxEvent event) {
+        return event.getEntityIds() != null ? event.getEntityIds() : List.of(event.getSubjectId());
+    }
+
+    private static <T> T common(List<OutboxEvent> group, Function<OutboxEvent, T> field) {
+        T value = field.apply(group.get(0));
+        for (OutboxEvent event : group) {
+            if (!Objects.equals(value, field.apply(event))) {
+                return null;
+            }
+        }
+        return value;
+    }
+}
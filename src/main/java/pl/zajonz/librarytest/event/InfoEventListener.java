@@ -5,17 +5,35 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
 import pl.zajonz.librarytest.event.model.InfoEvent;
-import pl.zajonz.librarytest.service.MessageSender;
+import pl.zajonz.librarytest.model.OutboxEvent;
+import pl.zajonz.librarytest.repository.OutboxEventRepository;
+
+import java.time.Instant;
 
 @Service
 @RequiredArgsConstructor
 public class InfoEventListener {
 
-    private final MessageSender messageSender;
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxRelay outboxRelay;
 
-    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
     public void handleInfoEvent(InfoEvent event) {
-        messageSender.sendInfo(event.getInfoMessage());
+        outboxEventRepository.save(OutboxEvent.builder()
+                .type(OutboxEvent.OutboxEventType.INFO)
+                .infoKind(event.kind())
+                .entityIds(event.entityIds())
+                .relatedId(event.relatedId())
+                .actor(event.actor())
+                .traceId(event.traceId())
+                .createdAt(event.createdAt())
+                .committedAt(Instant.now())
+                .build());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void relayInfoEvent(InfoEvent event) {
+        outboxRelay.requestDrain();
     }
 
 }
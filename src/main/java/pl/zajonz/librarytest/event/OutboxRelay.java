@@ -0,0 +1,200 @@
+package pl.zajonz.librarytest.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import pl.zajonz.librarytest.model.BookSnapshot;
+import pl.zajonz.librarytest.model.OutboxEvent;
+import pl.zajonz.librarytest.monitoring.TraceContext;
+import pl.zajonz.librarytest.repository.BookRepository;
+import pl.zajonz.librarytest.repository.OutboxEventRepository;
+import pl.zajonz.librarytest.service.MessageSender;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends events stored in the outbox table to RabbitMQ, oldest first, and deletes each batch once
+ * it has been handed to the broker. A failure stops the batch, so unsent rows are retried on the
+ * next run and delivery is at least once. With {@code outbox-relay-trigger-after-commit} a committed
+ * transaction also requests an immediate run, so events do not wait for the next poll; the poll
+ * remains as a fallback and a final drain runs on shutdown.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final BookRepository bookRepository;
+    private final MessageSender messageSender;
+    private final InfoEventCoalescer infoEventCoalescer;
+    private final ObjectMapper objectMapper;
+
+    @Value("${outbox-relay-enabled:true}")
+    private boolean enabled;
+
+    @Value("${outbox-relay-batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox-relay-interval-ms:200}")
+    private long relayIntervalMs;
+
+    @Value("${outbox-relay-trigger-after-commit:true}")
+    private boolean triggerAfterCommit;
+
+    private final AtomicLong relayedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong triggeredCount = new AtomicLong();
+    private final AtomicLong failedRunCount = new AtomicLong();
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+    private ScheduledExecutorService relay;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        relay = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        relay.scheduleWithFixedDelay(this::run, relayIntervalMs, relayIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (relay == null) {
+            return;
+        }
+        relay.shutdown();
+        relay.awaitTermination(relayIntervalMs, TimeUnit.MILLISECONDS);
+        run();
+    }
+
+    public void requestDrain() {
+        if (relay == null || !triggerAfterCommit || !drainRequested.compareAndSet(false, true)) {
+            return;
+        }
+        triggeredCount.incrementAndGet();
+        try {
+            relay.execute(this::run);
+        } catch (RejectedExecutionException e) {
+            drainRequested.set(false);
+        }
+    }
+
+    void run() {
+        drainRequested.set(false);
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            failedRunCount.incrementAndGet();
+            log.warn("Outbox relay run failed", e);
+        }
+    }
+
+    public synchronized void drain() {
+        List<OutboxEvent> batch;
+        do {
+            batch = outboxEventRepository.findAllByOrderByIdAsc(PageRequest.ofSize(batchSize));
+            if (infoEventCoalescer.shouldHold(batch, batchSize, Instant.now())) {
+                return;
+            }
+            List<Long> sent = new ArrayList<>(batch.size());
+            try {
+                for (List<OutboxEvent> group : infoEventCoalescer.group(batch)) {
+                    OutboxEvent first = group.get(0);
+                    TraceContext.inEvent(first.getTraceId(), first.getCreatedAt(), first.getCommittedAt(),
+                            () -> send(group));
+                    group.forEach(event -> sent.add(event.getId()));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Outbox relay stopped after {} of {} events", sent.size(), batch.size(), e);
+                return;
+            } finally {
+                if (!sent.isEmpty()) {
+                    outboxEventRepository.deleteAllByIdInBatch(sent);
+                    relayedCount.addAndGet(sent.size());
+                }
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    public long getPendingCount() {
+        return outboxEventRepository.count();
+    }
+
+    public long getRelayedCount() {
+        return relayedCount.get();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    public long getTriggeredCount() {
+        return triggeredCount.get();
+    }
+
+    public long getFailedRunCount() {
+        return failedRunCount.get();
+    }
+
+    private void send(List<OutboxEvent> group) {
+        if (group.size() == 1) {
+            send(group.get(0));
+            return;
+        }
+        messageSender.sendInfo(infoEventCoalescer.toAuditMessage(group));
+        coalescedCount.addAndGet(group.size());
+    }
+
+    private void send(OutboxEvent event) {
+        switch (event.getType()) {
+            case INFO -> {
+                if (InfoEventCoalescer.isAuditEvent(event)) {
+                    messageSender.sendInfo(infoEventCoalescer.toAuditMessage(List.of(event)));
+                } else if (event.getPayload() != null) {
+                    // rows written before audit events were structured carry the formatted text
+                    messageSender.sendLegacyInfo(event.getPayload());
+                } else {
+                    log.warn("Skipping info event {} without kind or payload", event.getId());
+                }
+            }
+            case EMAIL_INFO -> {
+                if (event.getPayload() != null) {
+                    messageSender.sendEmailInfo(readSnapshot(event.getPayload()));
+                } else {
+                    // rows written before events carried a snapshot only reference the book
+                    bookRepository.findById(event.getBookId()).map(BookSnapshot::of).ifPresentOrElse(
+                            messageSender::sendEmailInfo,
+                            () -> log.warn("Book {} no longer exists, skipping email info", event.getBookId()));
+                }
+            }
+        }
+    }
+
+    private BookSnapshot readSnapshot(String payload) {
+        try {
+            return objectMapper.readValue(payload, BookSnapshot.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package pl.zajonz.librarytest.event.model;
 
 import lombok.Data;
-import pl.zajonz.librarytest.model.Book;
+import pl.zajonz.librarytest.model.BookSnapshot;
+import pl.zajonz.librarytest.monitoring.TraceContext;
+
+import java.time.Instant;
 
 @Data
 public class BookEvent {
-    private final Book book;
+    private final BookSnapshot book;
+    private final String traceId = TraceContext.currentTraceId();
+    private final Instant createdAt = Instant.now();
 
 }
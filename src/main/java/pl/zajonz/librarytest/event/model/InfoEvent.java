@@ -1,10 +1,23 @@
 package pl.zajonz.librarytest.event.model;
 
-import lombok.Data;
+import pl.zajonz.librarytest.monitoring.TraceContext;
 
-@Data
-public class InfoEvent {
+import java.time.Instant;
+import java.util.List;
 
-    private final String infoMessage;
+/**
+ * Audit record of a mutation: what happened to which entities, the related entity (category of a new
+ * book, borrower, subscribed category) and who did it. Bulk operations publish one record for all
+ * affected ids. It is only formatted into a message by the outbox relay.
+ */
+public record InfoEvent(InfoEventKind kind, List<Integer> entityIds, Integer relatedId, String actor,
+                        String traceId, Instant createdAt) {
 
+    public InfoEvent(InfoEventKind kind, int entityId, Integer relatedId, String actor) {
+        this(kind, List.of(entityId), relatedId, actor);
+    }
+
+    public InfoEvent(InfoEventKind kind, List<Integer> entityIds, Integer relatedId, String actor) {
+        this(kind, List.copyOf(entityIds), relatedId, actor, TraceContext.currentTraceId(), Instant.now());
+    }
 }
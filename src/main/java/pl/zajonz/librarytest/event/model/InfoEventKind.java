@@ -0,0 +1,20 @@
+package pl.zajonz.librarytest.event.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum InfoEventKind {
+
+    BOOK_CREATED("book", "created"),
+    BOOK_BLOCKED("book", "blocked"),
+    BOOK_BORROWED("book", "borrowed"),
+    BOOK_RETURNED("book", "returned"),
+    USER_CREATED("user", "created"),
+    CATEGORY_SUBSCRIBED("user", "subscribed");
+
+    private final String entityType;
+    private final String action;
+
+}
@@ -3,7 +3,11 @@ package pl.zajonz.librarytest.mapper;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import pl.zajonz.librarytest.model.Book;
+import pl.zajonz.librarytest.model.CheckoutResult;
+import pl.zajonz.librarytest.model.ReturnResult;
 import pl.zajonz.librarytest.model.DTO.BookDto;
+import pl.zajonz.librarytest.model.DTO.CheckoutResultDto;
+import pl.zajonz.librarytest.model.DTO.ReturnResultDto;
 import pl.zajonz.librarytest.model.command.CreateBookCommand;
 
 @Mapper(componentModel = ("spring"))
@@ -15,4 +19,12 @@ public interface BookMapper {
 
     Book toBookEntity(CreateBookCommand command);
 
+    @Mapping(target = "borrowed", expression = "java(result.getBook() != null)")
+    @Mapping(source = "failure", target = "message")
+    CheckoutResultDto fromCheckoutResult(CheckoutResult result);
+
+    @Mapping(target = "returned", expression = "java(result.getFailure() == null)")
+    @Mapping(source = "failure", target = "message")
+    ReturnResultDto fromReturnResult(ReturnResult result);
+
 }
@@ -2,10 +2,16 @@ package pl.zajonz.librarytest.mapper;
 
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import pl.zajonz.librarytest.model.BatchedInfoMessage;
 import pl.zajonz.librarytest.model.Book;
+import pl.zajonz.librarytest.model.BookSnapshot;
 import pl.zajonz.librarytest.model.InfoMessage;
+import pl.zajonz.librarytest.model.InfoMessageRecipient;
+import pl.zajonz.librarytest.model.Subscriber;
 import pl.zajonz.librarytest.model.User;
 
+import java.util.List;
+
 @Mapper(componentModel = "spring")
 public interface InfoMessageMapper {
 
@@ -18,4 +24,24 @@ public interface InfoMessageMapper {
     @Mapping(source = "user.lastname", target = "user_lastName")
     InfoMessage toInfoMessage(Book book, User user);
 
+    @Mapping(source = "book.id", target = "bookId")
+    @Mapping(source = "book.title", target = "book_title")
+    @Mapping(source = "book.author", target = "book_author")
+    @Mapping(source = "book.categoryName", target = "book_category")
+    @Mapping(source = "subscriber.email", target = "email")
+    @Mapping(source = "subscriber.firstname", target = "user_firstName")
+    @Mapping(source = "subscriber.lastname", target = "user_lastName")
+    InfoMessage toInfoMessage(BookSnapshot book, Subscriber subscriber);
+
+    @Mapping(source = "book.id", target = "bookId")
+    @Mapping(source = "book.title", target = "book_title")
+    @Mapping(source = "book.author", target = "book_author")
+    @Mapping(source = "book.categoryName", target = "book_category")
+    @Mapping(source = "subscribers", target = "recipients")
+    BatchedInfoMessage toBatchedInfoMessage(BookSnapshot book, List<Subscriber> subscribers);
+
+    @Mapping(source = "firstname", target = "user_firstName")
+    @Mapping(source = "lastname", target = "user_lastName")
+    InfoMessageRecipient toRecipient(Subscriber subscriber);
+
 }
@@ -1,6 +1,7 @@
 package pl.zajonz.librarytest.mapper;
 
 import org.mapstruct.Mapper;
+import pl.zajonz.librarytest.model.ExecutionMeasurement;
 import pl.zajonz.librarytest.model.PerformanceInfo;
 import pl.zajonz.librarytest.model.User;
 
@@ -9,6 +10,7 @@ import java.time.LocalDateTime;
 @Mapper(componentModel = "spring")
 public interface PerformanceInfoMapper {
 
-    PerformanceInfo toPerformanceInfo(User user, Long executionTime, String classMethodName, LocalDateTime methodStartTime);
+    PerformanceInfo toPerformanceInfo(User user, ExecutionMeasurement measurement, String classMethodName,
+                                      LocalDateTime methodStartTime);
 
 }
@@ -0,0 +1,24 @@
+package pl.zajonz.librarytest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditMessage {
+
+    private String entityType;
+    private String action;
+    private List<Integer> entityIds;
+    private Integer relatedId;
+    private String actor;
+    private Instant occurredAt;
+
+}
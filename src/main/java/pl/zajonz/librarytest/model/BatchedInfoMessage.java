@@ -0,0 +1,16 @@
+package pl.zajonz.librarytest.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchedInfoMessage {
+
+    private int bookId;
+    private String book_title;
+    private String book_author;
+    private String book_category;
+    private List<InfoMessageRecipient> recipients;
+
+}
@@ -15,7 +15,10 @@ import java.time.LocalDate;
 public class Book {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // pooled-lo (hibernate.id.optimizer.pooled.preferred): next_val is the first id of the next block
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "book_id")
+    @TableGenerator(name = "book_id", table = "id_generator", pkColumnName = "name", valueColumnName = "next_val",
+            pkColumnValue = "book", allocationSize = 50)
     private int id;
     private String title;
     private String author;
@@ -27,6 +30,8 @@ public class Book {
     private Category category;
     @ManyToOne
     private User user;
+    @Version
+    private long version;
 
     @Override
     public String toString() {
@@ -0,0 +1,24 @@
+package pl.zajonz.librarytest.model;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Outcome of one catalog import. Only the first rejected rows are listed in {@code errors}, the
+ * {@code rejected} count covers all of them. Rows of a chunk the database did not accept are counted
+ * in {@code failed}, and {@code failedChunks} lists the line range of each such chunk with the reason;
+ * every other chunk is committed, so {@code imported} books are persisted.
+ */
+@Value
+public class BookImportReport {
+
+    long imported;
+    long rejected;
+    long failed;
+    List<String> errors;
+    List<String> failedChunks;
+    long elapsedMillis;
+    double rowsPerSecond;
+
+}
@@ -0,0 +1,14 @@
+package pl.zajonz.librarytest.model;
+
+import lombok.Value;
+
+/**
+ * Who currently holds a book, {@code username} is null when the book is not borrowed.
+ */
+@Value
+public class BookLoan {
+
+    int bookId;
+    String username;
+
+}
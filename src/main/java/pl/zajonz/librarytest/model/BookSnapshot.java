@@ -0,0 +1,14 @@
+package pl.zajonz.librarytest.model;
+
+/**
+ * Immutable copy of the book fields needed for notifications, taken when the book event is published
+ * so nothing downstream holds on to or lazily loads the managed entity.
+ */
+public record BookSnapshot(int id, String title, String author, int categoryId, String categoryName) {
+
+    public static BookSnapshot of(Book book) {
+        Category category = book.getCategory();
+        return new BookSnapshot(book.getId(), book.getTitle(), book.getAuthor(),
+                category.getId(), category.getName());
+    }
+}
@@ -0,0 +1,19 @@
+package pl.zajonz.librarytest.model;
+
+import lombok.Value;
+
+@Value
+public class CheckoutResult {
+
+    int bookId;
+    Book book;
+    String failure;
+
+    public static CheckoutResult borrowed(Book book) {
+        return new CheckoutResult(book.getId(), book, null);
+    }
+
+    public static CheckoutResult failed(int bookId, String failure) {
+        return new CheckoutResult(bookId, null, failure);
+    }
+}
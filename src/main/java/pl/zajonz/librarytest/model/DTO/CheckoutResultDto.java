@@ -0,0 +1,15 @@
+package pl.zajonz.librarytest.model.DTO;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class CheckoutResultDto {
+
+    private int bookId;
+    private boolean borrowed;
+    private String message;
+    private BookDto book;
+
+}
@@ -0,0 +1,22 @@
+package pl.zajonz.librarytest.model.DTO;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Builder
+public class LatencyStatsDto {
+
+    private String classMethodName;
+    private long count;
+    private double meanMs;
+    private double p50Ms;
+    private double p90Ms;
+    private double p99Ms;
+    private double p999Ms;
+    private double maxMs;
+    private LocalDateTime windowStart;
+
+}
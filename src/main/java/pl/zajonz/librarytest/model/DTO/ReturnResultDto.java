@@ -0,0 +1,14 @@
+package pl.zajonz.librarytest.model.DTO;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class ReturnResultDto {
+
+    private int bookId;
+    private boolean returned;
+    private String message;
+
+}
@@ -0,0 +1,22 @@
+package pl.zajonz.librarytest.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.concurrent.TimeUnit;
+
+@Value
+@Builder
+public class ExecutionMeasurement {
+
+    long executionTimeNanos;
+    long cpuTimeNanos;
+    long allocatedBytes;
+    long sqlStatementCount;
+    long sqlTimeNanos;
+
+    public long getExecutionTime() {
+        return TimeUnit.NANOSECONDS.toMillis(executionTimeNanos);
+    }
+
+}
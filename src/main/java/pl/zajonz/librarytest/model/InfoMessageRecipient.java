@@ -0,0 +1,12 @@
+package pl.zajonz.librarytest.model;
+
+import lombok.Data;
+
+@Data
+public class InfoMessageRecipient {
+
+    private String email;
+    private String user_firstName;
+    private String user_lastName;
+
+}
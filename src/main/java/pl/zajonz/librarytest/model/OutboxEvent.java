@@ -0,0 +1,43 @@
+package pl.zajonz.librarytest.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import pl.zajonz.librarytest.common.EntityIdsConverter;
+import pl.zajonz.librarytest.event.model.InfoEventKind;
+
+import java.time.Instant;
+import java.util.List;
+
+@Entity
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Enumerated(EnumType.STRING)
+    private OutboxEventType type;
+    private Integer bookId;
+    private String payload;
+    @Enumerated(EnumType.STRING)
+    private InfoEventKind infoKind;
+    // rows written before entity_ids only carry the id of a single entity
+    private Integer subjectId;
+    @Convert(converter = EntityIdsConverter.class)
+    private List<Integer> entityIds;
+    private Integer relatedId;
+    private String actor;
+    private String traceId;
+    private Instant createdAt;
+    // rows are written by BEFORE_COMMIT listeners, the last step before the commit
+    private Instant committedAt;
+
+    public enum OutboxEventType {
+        EMAIL_INFO,
+        INFO
+    }
+}
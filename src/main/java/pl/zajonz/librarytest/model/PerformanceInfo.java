@@ -10,6 +10,11 @@ public class PerformanceInfo {
     private int id;
     private String email;
     private long executionTime;
+    private long executionTimeNanos;
+    private long cpuTimeNanos;
+    private long allocatedBytes;
+    private long sqlStatementCount;
+    private long sqlTimeNanos;
     private String classMethodName;
     private LocalDateTime methodStartTime;
 
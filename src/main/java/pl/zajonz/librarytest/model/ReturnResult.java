@@ -0,0 +1,18 @@
+package pl.zajonz.librarytest.model;
+
+import lombok.Value;
+
+@Value
+public class ReturnResult {
+
+    int bookId;
+    String failure;
+
+    public static ReturnResult returned(int bookId) {
+        return new ReturnResult(bookId, null);
+    }
+
+    public static ReturnResult failed(int bookId, String failure) {
+        return new ReturnResult(bookId, failure);
+    }
+}
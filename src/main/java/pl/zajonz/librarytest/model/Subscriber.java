@@ -0,0 +1,14 @@
+package pl.zajonz.librarytest.model;
+
+import lombok.Value;
+
+@Value
+public class Subscriber {
+
+    int id;
+    String username;
+    String email;
+    String firstname;
+    String lastname;
+
+}
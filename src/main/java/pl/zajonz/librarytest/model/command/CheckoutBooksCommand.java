@@ -0,0 +1,23 @@
+package pl.zajonz.librarytest.model.command;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+public class CheckoutBooksCommand {
+
+    @NotEmpty(message = "bookIds cannot be empty")
+    @Size(max = 20, message = "at most 20 books can be checked out at once")
+    private List<@NotNull Integer> bookIds;
+
+    @NotNull(message = "to cannot be null")
+    private LocalDate to;
+
+}
@@ -0,0 +1,23 @@
+package pl.zajonz.librarytest.model.command;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReturnBooksCommand {
+
+    @NotEmpty(message = "bookIds cannot be empty")
+    @Size(max = 500, message = "at most 500 books can be returned at once")
+    private List<@NotNull Integer> bookIds;
+
+}
@@ -0,0 +1,22 @@
+package pl.zajonz.librarytest.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.Setter;
+
+@Name("pl.zajonz.librarytest.BookLockWait")
+@Label("Book Lock Wait")
+@Category({"Library", "Database"})
+@Description("Time spent acquiring the pessimistic write lock on a book row")
+@Setter
+public class BookLockWaitEvent extends jdk.jfr.Event {
+
+    @Label("Book Id")
+    private int bookId;
+
+    @Label("User")
+    private String user;
+
+}
@@ -0,0 +1,31 @@
+package pl.zajonz.librarytest.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.Setter;
+
+@Name("pl.zajonz.librarytest.BrokerPublish")
+@Label("Broker Publish")
+@Category({"Library", "RabbitMQ"})
+@Description("Message published to a RabbitMQ queue")
+@Setter
+public class BrokerPublishEvent extends jdk.jfr.Event {
+
+    @Label("Queue")
+    private String queue;
+
+    @Label("Book Id")
+    private int bookId;
+
+    @Label("User")
+    private String user;
+
+    @Label("Failed")
+    private boolean failed;
+
+    @Label("Spooled")
+    private boolean spooled;
+
+}
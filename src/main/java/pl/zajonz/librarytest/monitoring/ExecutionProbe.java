@@ -0,0 +1,78 @@
+package pl.zajonz.librarytest.monitoring;
+
+import com.sun.management.ThreadMXBean;
+import pl.zajonz.librarytest.model.ExecutionMeasurement;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures wall time, thread CPU time, bytes allocated and SQL statements executed by the current
+ * thread between {@link #start()} and {@link #stop()}. Counters the JVM does not support are
+ * reported as -1.
+ */
+public final class ExecutionProbe {
+
+    private static final ThreadMXBean THREAD_MX_BEAN = initThreadMXBean();
+
+    private final long startNanos;
+    private final long startCpuTimeNanos;
+    private final long startAllocatedBytes;
+    private final long startSqlStatementCount;
+    private final long startSqlTimeNanos;
+
+    private ExecutionProbe() {
+        this.startCpuTimeNanos = currentThreadCpuTime();
+        this.startAllocatedBytes = currentThreadAllocatedBytes();
+        this.startSqlStatementCount = SqlStatementCounter.statementCount();
+        this.startSqlTimeNanos = SqlStatementCounter.timeNanos();
+        this.startNanos = System.nanoTime();
+    }
+
+    public static ExecutionProbe start() {
+        return new ExecutionProbe();
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public ExecutionMeasurement stop() {
+        long executionTimeNanos = elapsedNanos();
+        long cpuTimeNanos = currentThreadCpuTime();
+        long allocatedBytes = currentThreadAllocatedBytes();
+        return ExecutionMeasurement.builder()
+                .executionTimeNanos(executionTimeNanos)
+                .cpuTimeNanos(cpuTimeNanos < 0 ? -1 : cpuTimeNanos - startCpuTimeNanos)
+                .allocatedBytes(allocatedBytes < 0 ? -1 : allocatedBytes - startAllocatedBytes)
+                .sqlStatementCount(SqlStatementCounter.statementCount() - startSqlStatementCount)
+                .sqlTimeNanos(SqlStatementCounter.timeNanos() - startSqlTimeNanos)
+                .build();
+    }
+
+    private static long currentThreadCpuTime() {
+        if (THREAD_MX_BEAN == null || !THREAD_MX_BEAN.isThreadCpuTimeEnabled()) {
+            return -1;
+        }
+        return THREAD_MX_BEAN.getCurrentThreadCpuTime();
+    }
+
+    private static long currentThreadAllocatedBytes() {
+        if (THREAD_MX_BEAN == null || !THREAD_MX_BEAN.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        return THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();
+    }
+
+    private static ThreadMXBean initThreadMXBean() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof ThreadMXBean threadMXBean)) {
+            return null;
+        }
+        if (threadMXBean.isCurrentThreadCpuTimeSupported() && !threadMXBean.isThreadCpuTimeEnabled()) {
+            threadMXBean.setThreadCpuTimeEnabled(true);
+        }
+        if (threadMXBean.isThreadAllocatedMemorySupported() && !threadMXBean.isThreadAllocatedMemoryEnabled()) {
+            threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        }
+        return threadMXBean;
+    }
+}
@@ -0,0 +1,48 @@
+package pl.zajonz.librarytest.monitoring;
+
+import org.springframework.stereotype.Component;
+import pl.zajonz.librarytest.model.DTO.LatencyStatsDto;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class MethodLatencyRegistry {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    public void record(String classMethodName, long nanos) {
+        histograms.computeIfAbsent(classMethodName, key -> new LatencyHistogram()).record(nanos);
+    }
+
+    public List<LatencyStatsDto> getStats() {
+        return histograms.entrySet().stream()
+                .map(entry -> toStats(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparing(LatencyStatsDto::getClassMethodName))
+                .toList();
+    }
+
+    public void reset() {
+        histograms.clear();
+    }
+
+    private LatencyStatsDto toStats(String classMethodName, LatencyHistogram histogram) {
+        long count = histogram.getCount();
+        long[] percentiles = histogram.valuesAtPercentiles(50, 90, 99, 99.9);
+        return LatencyStatsDto.builder()
+                .classMethodName(classMethodName)
+                .count(count)
+                .meanMs(count == 0 ? 0 : histogram.getTotalNanos() / NANOS_PER_MILLI / count)
+                .p50Ms(percentiles[0] / NANOS_PER_MILLI)
+                .p90Ms(percentiles[1] / NANOS_PER_MILLI)
+                .p99Ms(percentiles[2] / NANOS_PER_MILLI)
+                .p999Ms(percentiles[3] / NANOS_PER_MILLI)
+                .maxMs(histogram.getMaxNanos() / NANOS_PER_MILLI)
+                .windowStart(histogram.getWindowStart())
+                .build();
+    }
+}
@@ -0,0 +1,28 @@
+package pl.zajonz.librarytest.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.Setter;
+
+@Name("pl.zajonz.librarytest.MonitoredMethod")
+@Label("Monitored Method")
+@Category({"Library", "Monitoring"})
+@Description("Invocation of a method annotated with @MonitorMethod")
+@Setter
+public class MonitoredMethodEvent extends jdk.jfr.Event {
+
+    @Label("Method")
+    private String classMethodName;
+
+    @Label("User")
+    private String user;
+
+    @Label("SQL Statements")
+    private long sqlStatementCount;
+
+    @Label("Failed")
+    private boolean failed;
+
+}
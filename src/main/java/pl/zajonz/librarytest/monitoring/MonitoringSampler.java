@@ -0,0 +1,74 @@
+package pl.zajonz.librarytest.monitoring;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.zajonz.librarytest.adnotation.MonitorMethod;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class MonitoringSampler {
+
+    @Value("${monitor-method-sample-rate:-1}")
+    private double sampleRateOverride;
+
+    @Value("${monitor-method-slower-than-ms:-1}")
+    private long slowerThanMsOverride;
+
+    @Value("${monitor-method-adaptive:#{null}}")
+    private Boolean adaptiveOverride;
+
+    @Value("${monitor-method-adaptive-max-per-second:100}")
+    private int adaptiveMaxPerSecond;
+
+    private final Map<String, ThroughputWindow> throughputWindows = new ConcurrentHashMap<>();
+    private final LongAdder skippedCount = new LongAdder();
+
+    public boolean shouldReport(String classMethodName, MonitorMethod monitorMethod, long executionTimeNanos) {
+        long slowerThanMs = slowerThanMsOverride >= 0 ? slowerThanMsOverride : monitorMethod.slowerThanMs();
+        double sampleRate = sampleRateOverride >= 0 ? sampleRateOverride : monitorMethod.sampleRate();
+        boolean adaptive = adaptiveOverride != null ? adaptiveOverride : monitorMethod.adaptive();
+
+        if (adaptive) {
+            sampleRate = Math.min(sampleRate, throughputWindows
+                    .computeIfAbsent(classMethodName, key -> new ThroughputWindow())
+                    .probability(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime()), adaptiveMaxPerSecond));
+        }
+
+        boolean slowEnough = executionTimeNanos >= TimeUnit.MILLISECONDS.toNanos(slowerThanMs);
+        boolean sampled = sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+        if (slowEnough && sampled) {
+            return true;
+        }
+        skippedCount.increment();
+        return false;
+    }
+
+    public long getSkippedCount() {
+        return skippedCount.sum();
+    }
+
+    private static final class ThroughputWindow {
+
+        private final AtomicLong second = new AtomicLong();
+        private final AtomicLong count = new AtomicLong();
+        private volatile double probability = 1.0;
+
+        double probability(long nowSecond, int maxPerSecond) {
+            long current = second.get();
+            if (nowSecond != current && second.compareAndSet(current, nowSecond)) {
+                long observed = count.getAndSet(0);
+                probability = nowSecond - current > 1 || observed <= maxPerSecond
+                        ? 1.0
+                        : (double) maxPerSecond / observed;
+            }
+            count.incrementAndGet();
+            return probability;
+        }
+    }
+}
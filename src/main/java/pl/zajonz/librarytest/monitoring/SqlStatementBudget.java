@@ -0,0 +1,34 @@
+package pl.zajonz.librarytest.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.zajonz.librarytest.model.ExecutionMeasurement;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+@Component
+public class SqlStatementBudget {
+
+    @Value("${monitor-method-sql-statement-budget:-1}")
+    private long statementBudget;
+
+    private final LongAdder exceededCount = new LongAdder();
+
+    public boolean check(String classMethodName, ExecutionMeasurement measurement) {
+        if (statementBudget < 0 || measurement.getSqlStatementCount() <= statementBudget) {
+            return true;
+        }
+        exceededCount.increment();
+        log.warn("{} executed {} SQL statements in {} ms, over the budget of {} - possible N+1 query",
+                classMethodName, measurement.getSqlStatementCount(),
+                TimeUnit.NANOSECONDS.toMillis(measurement.getSqlTimeNanos()), statementBudget);
+        return false;
+    }
+
+    public long getExceededCount() {
+        return exceededCount.sum();
+    }
+}
@@ -0,0 +1,33 @@
+package pl.zajonz.librarytest.monitoring;
+
+/**
+ * Per-thread running totals of JDBC statements executed through Hibernate and the time spent
+ * executing them. Totals only ever grow; callers take the difference between two readings.
+ */
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<Totals> TOTALS = ThreadLocal.withInitial(Totals::new);
+
+    private SqlStatementCounter() {
+    }
+
+    public static void record(long nanos) {
+        Totals totals = TOTALS.get();
+        totals.statementCount++;
+        totals.timeNanos += nanos;
+    }
+
+    public static long statementCount() {
+        return TOTALS.get().statementCount;
+    }
+
+    public static long timeNanos() {
+        return TOTALS.get().timeNanos;
+    }
+
+    private static final class Totals {
+
+        private long statementCount;
+        private long timeNanos;
+    }
+}
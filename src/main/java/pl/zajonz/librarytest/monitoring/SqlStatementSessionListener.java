@@ -0,0 +1,32 @@
+package pl.zajonz.librarytest.monitoring;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Registered through {@code hibernate.session.events.auto}, so Hibernate creates one instance
+ * per session and reports every statement and batch execution to {@link SqlStatementCounter}.
+ */
+public class SqlStatementSessionListener extends BaseSessionEventListener {
+
+    private long executionStartNanos;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executionStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlStatementCounter.record(System.nanoTime() - executionStartNanos);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executionStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        SqlStatementCounter.record(System.nanoTime() - executionStartNanos);
+    }
+}
@@ -0,0 +1,98 @@
+package pl.zajonz.librarytest.monitoring;
+
+import org.springframework.amqp.core.MessageProperties;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Trace id of the request handled by the current thread and, while an event is being handled,
+ * the hop timestamps of that event. {@link #applyHeaders(MessageProperties)} copies both onto
+ * outgoing AMQP messages.
+ */
+public final class TraceContext {
+
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+    public static final String EVENT_CREATED_AT_HEADER = "x-event-created-at";
+    public static final String COMMITTED_AT_HEADER = "x-committed-at";
+    public static final String SPOOLED_AT_HEADER = "x-spooled-at";
+    public static final String PUBLISHED_AT_HEADER = "x-published-at";
+
+    private static final ThreadLocal<String> TRACE_ID = new ThreadLocal<>();
+    private static final ThreadLocal<EventHop> EVENT_HOP = new ThreadLocal<>();
+
+    private TraceContext() {
+    }
+
+    public static String currentTraceId() {
+        return TRACE_ID.get();
+    }
+
+    public static void setTraceId(String traceId) {
+        TRACE_ID.set(traceId);
+    }
+
+    public static void clear() {
+        TRACE_ID.remove();
+        EVENT_HOP.remove();
+    }
+
+    public static String newTraceId() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Runs an action for a stored event. {@code committedAt} is recorded when the event is written,
+     * not when it is relayed; it is null for events stored before it was recorded.
+     */
+    public static void inEvent(String traceId, Instant eventCreatedAt, Instant committedAt, Runnable action) {
+        String previousTraceId = TRACE_ID.get();
+        EventHop previousHop = EVENT_HOP.get();
+        TRACE_ID.set(traceId);
+        EVENT_HOP.set(new EventHop(eventCreatedAt, committedAt));
+        try {
+            action.run();
+        } finally {
+            TRACE_ID.set(previousTraceId);
+            EVENT_HOP.set(previousHop);
+        }
+    }
+
+    /**
+     * Wraps an action so that it runs with the trace id and event hop of the calling thread, for
+     * handing work over to another thread.
+     */
+    public static Runnable wrap(Runnable action) {
+        String traceId = TRACE_ID.get();
+        EventHop hop = EVENT_HOP.get();
+        return () -> {
+            String previousTraceId = TRACE_ID.get();
+            EventHop previousHop = EVENT_HOP.get();
+            TRACE_ID.set(traceId);
+            EVENT_HOP.set(hop);
+            try {
+                action.run();
+            } finally {
+                TRACE_ID.set(previousTraceId);
+                EVENT_HOP.set(previousHop);
+            }
+        };
+    }
+
+    public static void applyHeaders(MessageProperties properties) {
+        if (properties.getHeader(TRACE_ID_HEADER) == null) {
+            String traceId = TRACE_ID.get();
+            properties.setHeader(TRACE_ID_HEADER, traceId != null ? traceId : newTraceId());
+        }
+        EventHop hop = EVENT_HOP.get();
+        if (hop != null && properties.getHeader(EVENT_CREATED_AT_HEADER) == null) {
+            properties.setHeader(EVENT_CREATED_AT_HEADER, hop.createdAt().toString());
+            if (hop.committedAt() != null) {
+                properties.setHeader(COMMITTED_AT_HEADER, hop.committedAt().toString());
+            }
+        }
+    }
+
+    private record EventHop(Instant createdAt, Instant committedAt) {
+    }
+}
@@ -3,14 +3,44 @@ package pl.zajonz.librarytest.repository;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import pl.zajonz.librarytest.model.Book;
+import pl.zajonz.librarytest.model.BookLoan;
+import pl.zajonz.librarytest.model.User;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface BookRepository extends JpaRepository<Book, Integer> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     Optional<Book> findWithLockingById(int id);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Book> findAllWithLockingByIdInOrderByIdAsc(Collection<Integer> ids);
+
     Book findBookByAuthor(String author);
 
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.state = pl.zajonz.librarytest.common.State.BORROWED, b.user = :user, " +
+            "b.fromDate = :fromDate, b.toDate = :toDate, b.version = b.version + 1 " +
+            "where b.id = :id and b.state = pl.zajonz.librarytest.common.State.READY and b.isBlocked = false")
+    int borrowIfReady(int id, User user, LocalDate fromDate, LocalDate toDate);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b.id from Book b where b.id in :ids order by b.id")
+    List<Integer> lockAllByIdIn(Collection<Integer> ids);
+
+    @Query("select new pl.zajonz.librarytest.model.BookLoan(b.id, u.username) " +
+            "from Book b left join b.user u where b.id in :ids order by b.id")
+    List<BookLoan> findLoansByIdIn(Collection<Integer> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.state = pl.zajonz.librarytest.common.State.READY, b.user = null, " +
+            "b.fromDate = null, b.toDate = null, b.version = b.version + 1 " +
+            "where b.id in :ids and b.user is not null")
+    int returnAll(Collection<Integer> ids);
+
 }
@@ -1,8 +1,12 @@
 package pl.zajonz.librarytest.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import pl.zajonz.librarytest.model.Subscriber;
 import pl.zajonz.librarytest.model.User;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
@@ -10,4 +14,9 @@ public interface UserRepository extends JpaRepository<User, Integer> {
 
     Optional<User> findByEmail(String email);
 
+    @Query("select new pl.zajonz.librarytest.model.Subscriber(u.id, u.username, u.email, u.firstname, u.lastname) " +
+            "from User u join u.subscribedCategories c " +
+            "where c.id = :categoryId and u.id > :afterId order by u.id")
+    List<Subscriber> findSubscribersAfter(int categoryId, int afterId, Pageable pageable);
+
 }
@@ -0,0 +1,11 @@
+package pl.zajonz.librarytest.service;
+
+import pl.zajonz.librarytest.common.BookImportFormat;
+import pl.zajonz.librarytest.model.BookImportReport;
+
+import java.io.InputStream;
+
+public interface BookImportService {
+    BookImportReport importBooks(InputStream input, BookImportFormat format);
+
+}
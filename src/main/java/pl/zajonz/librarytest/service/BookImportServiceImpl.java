@@ -0,0 +1,305 @@
+package pl.zajonz.librarytest.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionOperations;
+import pl.zajonz.librarytest.common.BookImportFormat;
+import pl.zajonz.librarytest.common.State;
+import pl.zajonz.librarytest.event.model.BookEvent;
+import pl.zajonz.librarytest.event.model.InfoEvent;
+import pl.zajonz.librarytest.event.model.InfoEventKind;
+import pl.zajonz.librarytest.mapper.BookMapper;
+import pl.zajonz.librarytest.model.Book;
+import pl.zajonz.librarytest.model.BookImportReport;
+import pl.zajonz.librarytest.model.BookSnapshot;
+import pl.zajonz.librarytest.model.Category;
+import pl.zajonz.librarytest.model.command.CreateBookCommand;
+import pl.zajonz.librarytest.repository.BookRepository;
+import pl.zajonz.librarytest.repository.CategoryRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Imports books from NDJSON or RFC 4180 CSV (with a {@code title,author,categoryId} header) row by
+ * row, so the file is never held in memory. Rows are validated like {@link CreateBookCommand} and
+ * rejected one by one; categories are looked up once per import. Books are inserted in chunks of
+ * {@code book-import-batch-size}, each chunk in its own transaction and sent to the database as JDBC
+ * batches, so a failing chunk does not roll back the chunks imported before it. A failing chunk is
+ * reported with its line range and the import goes on with the next one.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookImportServiceImpl implements BookImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final List<String> CSV_COLUMNS = List.of("title", "author", "categoryId");
+    private static final CsvMapper CSV_MAPPER = new CsvMapper()
+            .enable(CsvParser.Feature.WRAP_AS_ARRAY)
+            .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+            .enable(CsvParser.Feature.TRIM_SPACES);
+
+    private final CategoryRepository categoryRepository;
+    private final BookRepository bookRepository;
+    private final BookMapper bookMapper;
+    private final ApplicationEventPublisher publisher;
+    private final TransactionOperations transactionOperations;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${book-import-batch-size:500}")
+    private int batchSize = 500;
+
+    private final AtomicLong importedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    @Override
+    @Timed(value = "library.book.import", histogram = true)
+    public BookImportReport importBooks(InputStream input, BookImportFormat format) {
+        ImportRun run = new ImportRun();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            if (format == BookImportFormat.CSV) {
+                readCsv(reader, run);
+            } else {
+                readNdjson(reader, run);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return run.finish();
+    }
+
+    public long getImportedCount() {
+        return importedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    private int insert(List<Book> chunk) {
+        try {
+            transactionOperations.executeWithoutResult(status -> {
+                bookRepository.saveAll(chunk);
+                publishEvents(chunk);
+            });
+            importedCount.addAndGet(chunk.size());
+            return chunk.size();
+        } finally {
+            // the request-scoped persistence context would otherwise keep every imported book
+            entityManager.clear();
+            chunk.clear();
+        }
+    }
+
+    private void publishEvents(List<Book> chunk) {
+        chunk.stream()
+                .collect(Collectors.groupingBy(book -> book.getCategory().getId(), LinkedHashMap::new,
+                        Collectors.mapping(Book::getId, Collectors.toList())))
+                .forEach((categoryId, ids) ->
+                        publisher.publishEvent(new InfoEvent(InfoEventKind.BOOK_CREATED, ids, categoryId, null)));
+        chunk.forEach(book -> publisher.publishEvent(new BookEvent(BookSnapshot.of(book))));
+    }
+
+    private Book toBook(CreateBookCommand command, Map<Integer, Optional<Category>> categories) {
+        Set<ConstraintViolation<CreateBookCommand>> violations = validator.validate(command);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+
+        int categoryId = command.getCategoryId();
+        Category category = categories.computeIfAbsent(categoryId, categoryRepository::findById).orElseThrow(
+                () -> new IllegalArgumentException("Not found category with id: " + categoryId));
+
+        Book book = bookMapper.toBookEntity(command);
+        book.setCategory(category);
+        book.setBlocked(false);
+        book.setState(State.READY);
+        return book;
+    }
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (!line.isBlank()) {
+                String json = line;
+                run.add(lineNumber, () -> parseJson(json));
+            }
+        }
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        try (MappingIterator<String[]> rows = CSV_MAPPER.readerFor(String[].class).readValues(reader)) {
+            Map<String, Integer> columns = readHeader(rows);
+            while (true) {
+                // read before the row, the location is the line the row starts on
+                long lineNumber = rows.getCurrentLocation().getLineNr();
+                try {
+                    if (!rows.hasNextValue()) {
+                        return;
+                    }
+                    String[] values = rows.nextValue();
+                    run.add(lineNumber, () -> toCommand(values, columns));
+                } catch (JsonProcessingException e) {
+                    // an unterminated quote runs to the end of the input, nothing after it can be read
+                    run.reject(lineNumber, "malformed CSV");
+                    return;
+                }
+            }
+        }
+    }
+
+    private CreateBookCommand parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, CreateBookCommand.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("malformed JSON");
+        }
+    }
+
+    private static CreateBookCommand toCommand(String[] values, Map<String, Integer> columns) {
+        if (values.length != columns.size()) {
+            throw new IllegalArgumentException("expected " + columns.size() + " columns");
+        }
+        try {
+            return CreateBookCommand.builder()
+                    .title(values[columns.get("title")])
+                    .author(values[columns.get("author")])
+                    .categoryId(Integer.parseInt(values[columns.get("categoryId")]))
+                    .build();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("categoryId has to be a number");
+        }
+    }
+
+    private static Map<String, Integer> readHeader(MappingIterator<String[]> rows) throws IOException {
+        Map<String, Integer> columns = new HashMap<>();
+        if (rows.hasNextValue()) {
+            String[] names = rows.nextValue();
+            for (int i = 0; i < names.length; i++) {
+                columns.put(names[i], i);
+            }
+        }
+        if (!columns.keySet().containsAll(CSV_COLUMNS)) {
+            throw new IllegalArgumentException("CSV header has to contain " + String.join(",", CSV_COLUMNS));
+        }
+        return columns;
+    }
+
+    private static double rowsPerSecond(long rows, long start) {
+        long elapsedNanos = Math.max(System.nanoTime() - start, 1);
+        return rows * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * State of one import: the pending chunk, the category cache and the counts for the report.
+     */
+    private class ImportRun {
+
+        private final long start = System.nanoTime();
+        private final Map<Integer, Optional<Category>> categories = new HashMap<>();
+        private final List<Book> chunk = new ArrayList<>(batchSize);
+        private final List<String> errors = new ArrayList<>();
+        private final List<String> failedChunks = new ArrayList<>();
+        private long chunkFirstLine;
+        private long chunkLastLine;
+        private long imported;
+        private long rejected;
+        private long failed;
+
+        void add(long lineNumber, Supplier<CreateBookCommand> row) {
+            try {
+                chunk.add(toBook(row.get(), categories));
+            } catch (IllegalArgumentException e) {
+                reject(lineNumber, e.getMessage());
+                return;
+            }
+            if (chunk.size() == 1) {
+                chunkFirstLine = lineNumber;
+            }
+            chunkLastLine = lineNumber;
+            if (chunk.size() >= batchSize) {
+                flush();
+                log.info("Book import: {} imported, {} rejected, {} failed, {} rows/s",
+                        imported, rejected, failed, rowsPerSecond(imported + rejected + failed, start));
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            int size = chunk.size();
+            try {
+                imported += insert(chunk);
+            } catch (DataAccessException | TransactionException e) {
+                failed += size;
+                failedCount.addAndGet(size);
+                String reason = e.getMostSpecificCause().getMessage();
+                if (failedChunks.size() < MAX_REPORTED_ERRORS) {
+                    failedChunks.add("lines " + chunkFirstLine + "-" + chunkLastLine + ": " + reason);
+                }
+                log.warn("Book import: chunk of lines {}-{} failed", chunkFirstLine, chunkLastLine, e);
+            }
+        }
+
+        void reject(long lineNumber, String message) {
+            rejected++;
+            rejectedCount.incrementAndGet();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("line " + lineNumber + ": " + message);
+            }
+        }
+
+        BookImportReport finish() {
+            flush();
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            double rowsPerSecond = rowsPerSecond(imported + rejected + failed, start);
+            log.info("Book import finished: {} imported, {} rejected, {} failed in {} ms, {} rows/s",
+                    imported, rejected, failed, elapsedMillis, rowsPerSecond);
+            return new BookImportReport(imported, rejected, failed, errors, failedChunks, elapsedMillis,
+                    rowsPerSecond);
+        }
+    }
+}
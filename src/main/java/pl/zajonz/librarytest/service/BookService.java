@@ -3,8 +3,11 @@ package pl.zajonz.librarytest.service;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import pl.zajonz.librarytest.model.Book;
+import pl.zajonz.librarytest.model.CheckoutResult;
+import pl.zajonz.librarytest.model.ReturnResult;
 
 import java.time.LocalDate;
+import java.util.List;
 
 public interface BookService {
     Book create(Book book, int categoryId);
@@ -13,8 +16,12 @@ public interface BookService {
 
     Book borrowBook(String name, int id, LocalDate to);
 
+    List<CheckoutResult> checkoutBooks(String name, List<Integer> ids, LocalDate to);
+
     Book returnBook(String name, String role, int id);
 
+    List<ReturnResult> returnBooks(String name, String role, List<Integer> ids);
+
     Page<Book> getAll(Pageable pageable);
 
 }
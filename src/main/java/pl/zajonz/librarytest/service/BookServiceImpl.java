@@ -1,33 +1,63 @@
 package pl.zajonz.librarytest.service;
 
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import pl.zajonz.librarytest.common.BorrowConcurrency;
 import pl.zajonz.librarytest.common.State;
 import pl.zajonz.librarytest.event.model.BookEvent;
 import pl.zajonz.librarytest.event.model.InfoEvent;
+import pl.zajonz.librarytest.event.model.InfoEventKind;
 import pl.zajonz.librarytest.model.Book;
+import pl.zajonz.librarytest.model.BookLoan;
+import pl.zajonz.librarytest.model.BookSnapshot;
+import pl.zajonz.librarytest.model.CheckoutResult;
 import pl.zajonz.librarytest.model.Category;
+import pl.zajonz.librarytest.model.ReturnResult;
 import pl.zajonz.librarytest.model.User;
+import pl.zajonz.librarytest.monitoring.BookLockWaitEvent;
 import pl.zajonz.librarytest.repository.BookRepository;
 import pl.zajonz.librarytest.repository.CategoryRepository;
 import pl.zajonz.librarytest.repository.UserRepository;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "library.book.transactions", histogram = true)
 public class BookServiceImpl implements BookService {
 
     private final CategoryRepository categoryRepository;
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
     private final ApplicationEventPublisher publisher;
+    private final TransactionOperations transactionOperations;
+    private final Lock[] borrowLocks = stripes(64);
+
+    @Value("${borrow-concurrency:PESSIMISTIC}")
+    private BorrowConcurrency borrowConcurrency = BorrowConcurrency.PESSIMISTIC;
+
+    @Value("${borrow-concurrency-max-attempts:3}")
+    private int borrowMaxAttempts = 3;
 
     @Override
     @Transactional
@@ -41,8 +71,8 @@ public class BookServiceImpl implements BookService {
 
         Book saved = bookRepository.save(book);
 
-        publisher.publishEvent(new InfoEvent(book + " has been created"));
-        publisher.publishEvent(new BookEvent(book));
+        publisher.publishEvent(new InfoEvent(InfoEventKind.BOOK_CREATED, book.getId(), categoryId, null));
+        publisher.publishEvent(new BookEvent(BookSnapshot.of(book)));
 
         return saved;
     }
@@ -54,42 +84,75 @@ public class BookServiceImpl implements BookService {
                 () -> new EntityNotFoundException("Not found book with id: " + id));
         book.setBlocked(true);
 
-        publisher.publishEvent(new InfoEvent(book + " has been blocked"));
+        publisher.publishEvent(new InfoEvent(InfoEventKind.BOOK_BLOCKED, book.getId(), null, null));
 
         return bookRepository.save(book);
     }
 
     @Override
-    @Transactional
     public Book borrowBook(String name, int id, LocalDate to) {
         if (to.isBefore(LocalDate.now())) {
             throw new IllegalArgumentException("Date 'to' cannot be before today's date");
         }
 
-        Book book = bookRepository.findWithLockingById(id).orElseThrow(
-                () -> new EntityNotFoundException("Not found book with id: " + id));
+        return switch (borrowConcurrency) {
+            case PESSIMISTIC -> transactionOperations.execute(status -> borrow(name, findWithLocking(name, id), to));
+            case OPTIMISTIC -> borrowOptimistically(name, id, to);
+            case CONDITIONAL_UPDATE -> transactionOperations.execute(status -> borrowConditionally(name, id, to));
+            case STRIPED_LOCK -> borrowWithStripedLock(name, id, to);
+        };
+    }
 
-        if (book.isBlocked()) {
-            throw new IllegalArgumentException("Book with id: " + id + " cannot be borrowed");
+    @Override
+    @Transactional
+    public List<CheckoutResult> checkoutBooks(String name, List<Integer> ids, LocalDate to) {
+        if (to.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Date 'to' cannot be before today's date");
         }
 
-        if (book.getState().equals(State.BORROWED)) {
-            throw new IllegalArgumentException("Book is borrowed to: " + book.getToDate());
-        }
+        User user = findUser(name);
 
-        User user = userRepository.findByUsername(name).orElseThrow(
-                () -> new UsernameNotFoundException("Not found user with username: " + name));
+        // one locking query, rows locked in ascending id order so overlapping checkouts cannot deadlock
+        Map<Integer, Book> locked = new HashMap<>();
+        for (Book book : bookRepository.findAllWithLockingByIdInOrderByIdAsc(new TreeSet<>(ids))) {
+            locked.put(book.getId(), book);
+        }
 
-        book.setState(State.BORROWED);
-        book.setUser(user);
-        book.setFromDate(LocalDate.now());
-        book.setToDate(to);
+        List<CheckoutResult> results = new ArrayList<>(ids.size());
+        List<Book> borrowed = new ArrayList<>(ids.size());
+        Set<Integer> requested = new HashSet<>();
+        for (int id : ids) {
+            if (!requested.add(id)) {
+                results.add(CheckoutResult.failed(id, "Book with id: " + id + " is duplicated in the request"));
+                continue;
+            }
+            Book book = locked.get(id);
+            if (book == null) {
+                results.add(CheckoutResult.failed(id, "Not found book with id: " + id));
+                continue;
+            }
+            try {
+                checkBorrowable(book);
+            } catch (IllegalArgumentException e) {
+                results.add(CheckoutResult.failed(id, e.getMessage()));
+                continue;
+            }
+            book.setState(State.BORROWED);
+            book.setUser(user);
+            book.setFromDate(LocalDate.now());
+            book.setToDate(to);
+            borrowed.add(book);
+            results.add(CheckoutResult.borrowed(book));
+        }
 
-        Book save = bookRepository.save(book);
+        bookRepository.saveAll(borrowed);
 
-        publisher.publishEvent(new InfoEvent(book + " has been borrowed"));
+        if (!borrowed.isEmpty()) {
+            publisher.publishEvent(new InfoEvent(InfoEventKind.BOOK_BORROWED,
+                    borrowed.stream().map(Book::getId).toList(), user.getId(), name));
+        }
 
-        return save;
+        return results;
     }
 
     @Override
@@ -113,13 +176,156 @@ public class BookServiceImpl implements BookService {
 
         Book saved = bookRepository.save(book);
 
-        publisher.publishEvent(new InfoEvent(book + " was returned by user: " + name + " with role " + role));
+        publisher.publishEvent(new InfoEvent(InfoEventKind.BOOK_RETURNED, book.getId(), null, name));
 
         return saved;
     }
 
+    @Override
+    @Transactional
+    public List<ReturnResult> returnBooks(String name, String role, List<Integer> ids) {
+        // lock only the book rows, in id order, before reading who borrowed them
+        Set<Integer> lookup = new TreeSet<>(ids);
+        bookRepository.lockAllByIdIn(lookup);
+        Map<Integer, BookLoan> loans = new HashMap<>();
+        bookRepository.findLoansByIdIn(lookup)
+                .forEach(loan -> loans.put(loan.getBookId(), loan));
+
+        List<ReturnResult> results = new ArrayList<>(ids.size());
+        Set<Integer> returnable = new LinkedHashSet<>();
+        for (int id : ids) {
+            BookLoan loan = loans.get(id);
+            if (loan == null) {
+                results.add(ReturnResult.failed(id, "Not found book with id: " + id));
+            } else if (loan.getUsername() == null) {
+                results.add(ReturnResult.failed(id, "Book with id: " + id + " is not borrowed"));
+            } else if (role.equals("[ROLE_CUSTOMER]") && !loan.getUsername().equals(name)) {
+                results.add(ReturnResult.failed(id, "No access to book with id: " + id));
+            } else if (!returnable.add(id)) {
+                results.add(ReturnResult.failed(id, "Book with id: " + id + " is already returned"));
+            } else {
+                results.add(ReturnResult.returned(id));
+            }
+        }
+
+        if (!returnable.isEmpty()) {
+            bookRepository.returnAll(returnable);
+            publisher.publishEvent(new InfoEvent(InfoEventKind.BOOK_RETURNED, List.copyOf(returnable), null, name));
+        }
+
+        return results;
+    }
+
     @Override
     public Page<Book> getAll(Pageable pageable) {
         return bookRepository.findAll(pageable);
     }
+
+    private Book borrow(String name, Book book, LocalDate to) {
+        checkBorrowable(book);
+
+        User user = findUser(name);
+
+        book.setState(State.BORROWED);
+        book.setUser(user);
+        book.setFromDate(LocalDate.now());
+        book.setToDate(to);
+
+        Book save = bookRepository.save(book);
+
+        publisher.publishEvent(new InfoEvent(InfoEventKind.BOOK_BORROWED, book.getId(), user.getId(), name));
+
+        return save;
+    }
+
+    /**
+     * Retries on a version conflict. With {@code STRIPED_LOCK} a conflict still happens when another node,
+     * or a path that does not take the stripe (checkout, return, block), changed the book meanwhile.
+     */
+    private Book borrowOptimistically(String name, int id, LocalDate to) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionOperations.execute(status -> borrow(name, findBook(id), to));
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= borrowMaxAttempts) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private Book borrowConditionally(String name, int id, LocalDate to) {
+        User user = findUser(name);
+        if (bookRepository.borrowIfReady(id, user, LocalDate.now(), to) == 0) {
+            // nothing was updated, so reading the book tells why
+            checkBorrowable(findBook(id));
+            throw new IllegalArgumentException("Book with id: " + id + " cannot be borrowed");
+        }
+
+        publisher.publishEvent(new InfoEvent(InfoEventKind.BOOK_BORROWED, id, user.getId(), name));
+
+        return findBook(id);
+    }
+
+    private Book borrowWithStripedLock(String name, int id, LocalDate to) {
+        Lock lock = borrowLocks[Math.floorMod(Integer.hashCode(id), borrowLocks.length)];
+        BookLockWaitEvent event = new BookLockWaitEvent();
+        event.begin();
+        lock.lock();
+        event.end();
+        if (event.shouldCommit()) {
+            event.setBookId(id);
+            event.setUser(name);
+            event.commit();
+        }
+        try {
+            return borrowOptimistically(name, id, to);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void checkBorrowable(Book book) {
+        if (book.isBlocked()) {
+            throw new IllegalArgumentException("Book with id: " + book.getId() + " cannot be borrowed");
+        }
+
+        if (book.getState().equals(State.BORROWED)) {
+            throw new IllegalArgumentException("Book is borrowed to: " + book.getToDate());
+        }
+    }
+
+    private Book findBook(int id) {
+        return bookRepository.findById(id).orElseThrow(
+                () -> new EntityNotFoundException("Not found book with id: " + id));
+    }
+
+    private User findUser(String name) {
+        return userRepository.findByUsername(name).orElseThrow(
+                () -> new UsernameNotFoundException("Not found user with username: " + name));
+    }
+
+    private Book findWithLocking(String name, int id) {
+        BookLockWaitEvent event = new BookLockWaitEvent();
+        event.begin();
+        try {
+            return bookRepository.findWithLockingById(id).orElseThrow(
+                    () -> new EntityNotFoundException("Not found book with id: " + id));
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.setBookId(id);
+                event.setUser(name);
+                event.commit();
+            }
+        }
+    }
+
+    private static Lock[] stripes(int count) {
+        Lock[] locks = new Lock[count];
+        for (int i = 0; i < count; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
 }
@@ -0,0 +1,42 @@
+package pl.zajonz.librarytest.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+public class BrokerHealthGate {
+
+    @Value("${message-spool-slow-publish-ms:500}")
+    private long slowPublishMs;
+
+    private volatile boolean degraded;
+
+    public boolean isDegraded() {
+        return degraded;
+    }
+
+    public void recordPublish(long nanos) {
+        if (!degraded && nanos > TimeUnit.MILLISECONDS.toNanos(slowPublishMs)) {
+            degraded = true;
+            log.warn("Broker publish took {} ms, spooling outgoing messages", TimeUnit.NANOSECONDS.toMillis(nanos));
+        }
+    }
+
+    public void recordFailure(Exception e) {
+        if (!degraded) {
+            degraded = true;
+            log.warn("Broker publish failed, spooling outgoing messages", e);
+        }
+    }
+
+    public void recordRecovery() {
+        if (degraded) {
+            degraded = false;
+            log.info("Broker recovered, publishing directly again");
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pl.zajonz.librarytest.event.model.InfoEvent;
+import pl.zajonz.librarytest.event.model.InfoEventKind;
 import pl.zajonz.librarytest.model.Category;
 import pl.zajonz.librarytest.model.User;
 import pl.zajonz.librarytest.repository.CategoryRepository;
@@ -32,7 +33,7 @@ public class CategoryServiceImpl implements CategoryService {
 
         user.getSubscribedCategories().add(category);
 
-        publisher.publishEvent(new InfoEvent(user + " has subscribed category: " + category));
+        publisher.publishEvent(new InfoEvent(InfoEventKind.CATEGORY_SUBSCRIBED, user.getId(), categoryId, name));
 
         userRepository.save(user);
     }
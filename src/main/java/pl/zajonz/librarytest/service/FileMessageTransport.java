@@ -0,0 +1,71 @@
+package pl.zajonz.librarytest.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.AmqpException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import pl.zajonz.librarytest.monitoring.TraceContext;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Appends every message as one JSON line with its queue, timestamp and trace id to a local file.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "message-transport", havingValue = "file")
+public class FileMessageTransport implements MessageTransport {
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${message-transport-file-path:messages/messages.jsonl}")
+    private String path;
+
+    private BufferedWriter writer;
+
+    @PostConstruct
+    public void start() throws IOException {
+        Path file = Path.of(path);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws IOException {
+        writer.close();
+    }
+
+    @Override
+    public void publish(String queueName, Object payload, int bookId, String user) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("queue", queueName);
+        line.put("timestamp", Instant.now().toString());
+        line.put("traceId", TraceContext.currentTraceId());
+        line.put("payload", payload);
+        try {
+            String json = objectMapper.writeValueAsString(line);
+            synchronized (this) {
+                writer.write(json);
+                writer.newLine();
+                writer.flush();
+            }
+        } catch (IOException e) {
+            throw new AmqpException("Could not write message to " + path, e);
+        }
+    }
+}
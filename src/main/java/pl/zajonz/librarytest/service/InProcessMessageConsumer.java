@@ -0,0 +1,7 @@
+package pl.zajonz.librarytest.service;
+
+public interface InProcessMessageConsumer {
+
+    void consume(String queueName, Object payload);
+
+}
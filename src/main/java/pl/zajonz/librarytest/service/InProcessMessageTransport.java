@@ -0,0 +1,108 @@
+package pl.zajonz.librarytest.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands messages to {@link InProcessMessageConsumer}s through a lock-free queue drained by a single
+ * dispatcher thread. Meant for benchmarks and single-node installs without a broker. A full queue
+ * rejects the message with an {@link AmqpException}, so the outbox relay keeps the row and retries it.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "message-transport", havingValue = "in-process")
+public class InProcessMessageTransport implements MessageTransport {
+
+    private final Queue<Envelope> queue = new ConcurrentLinkedQueue<>();
+    private final List<InProcessMessageConsumer> consumers = new CopyOnWriteArrayList<>();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private volatile boolean running;
+    private Thread dispatcher;
+
+    @Value("${message-transport-in-process-capacity:100000}")
+    private int capacity;
+
+    public InProcessMessageTransport(List<InProcessMessageConsumer> consumers) {
+        this.consumers.addAll(consumers);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        dispatcher = new Thread(this::dispatch, "in-process-message-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(dispatcher);
+        dispatcher.join(TimeUnit.SECONDS.toMillis(1));
+    }
+
+    public void addConsumer(InProcessMessageConsumer consumer) {
+        consumers.add(consumer);
+    }
+
+    @Override
+    public void publish(String queueName, Object payload, int bookId, String user) {
+        if (queueDepth.incrementAndGet() > capacity) {
+            queueDepth.decrementAndGet();
+            rejectedCount.incrementAndGet();
+            throw new AmqpException("In-process queue is full, rejected message to " + queueName);
+        }
+        queue.offer(new Envelope(queueName, payload));
+        LockSupport.unpark(dispatcher);
+    }
+
+    private void dispatch() {
+        while (running || !queue.isEmpty()) {
+            Envelope envelope = queue.poll();
+            if (envelope == null) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                continue;
+            }
+            queueDepth.decrementAndGet();
+            for (InProcessMessageConsumer consumer : consumers) {
+                try {
+                    consumer.consume(envelope.queueName(), envelope.payload());
+                } catch (RuntimeException e) {
+                    log.warn("In-process consumer failed for message to {}", envelope.queueName(), e);
+                }
+            }
+            deliveredCount.incrementAndGet();
+        }
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    private record Envelope(String queueName, Object payload) {
+    }
+}
@@ -1,14 +1,18 @@
 package pl.zajonz.librarytest.service;
 
-import pl.zajonz.librarytest.model.Book;
+import pl.zajonz.librarytest.model.AuditMessage;
+import pl.zajonz.librarytest.model.BookSnapshot;
+import pl.zajonz.librarytest.model.ExecutionMeasurement;
 import pl.zajonz.librarytest.model.User;
 
 import java.time.LocalDateTime;
 
 public interface MessageSender {
-    void sendEmailInfo(Book book);
+    void sendEmailInfo(BookSnapshot book);
 
-    void sendPerformanceInfo(User user, long executionTime, String toShortString, LocalDateTime startMethodDateTime);
+    void sendPerformanceInfo(User user, ExecutionMeasurement measurement, String toShortString, LocalDateTime startMethodDateTime);
 
-    void sendInfo(String info);
+    void sendInfo(AuditMessage info);
+
+    void sendLegacyInfo(String info);
 }
@@ -1,23 +1,38 @@
 package pl.zajonz.librarytest.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
 import pl.zajonz.librarytest.mapper.InfoMessageMapper;
 import pl.zajonz.librarytest.mapper.PerformanceInfoMapper;
-import pl.zajonz.librarytest.model.Book;
+import pl.zajonz.librarytest.model.AuditMessage;
+import pl.zajonz.librarytest.model.BookSnapshot;
+import pl.zajonz.librarytest.model.ExecutionMeasurement;
+import pl.zajonz.librarytest.model.PerformanceInfo;
+import pl.zajonz.librarytest.model.Subscriber;
 import pl.zajonz.librarytest.model.User;
+import pl.zajonz.librarytest.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
+/**
+ * Email and info messages are only sent by the outbox relay, which deletes a row once its message
+ * has been sent. They are therefore published synchronously, so a failure reaches the relay and the
+ * row is retried; only performance records go through the {@link TelemetryLane}, which may shed them.
+ */
 @Component
 @RequiredArgsConstructor
 public class MessageSenderImpl implements MessageSender {
 
-    private final RabbitTemplate rabbitTemplate;
+    private final MessageTransport messageTransport;
+    private final TelemetryLane telemetryLane;
     private final InfoMessageMapper infoMessageMapper;
     private final PerformanceInfoMapper performanceInfoMapper;
+    private final PerformanceInfoBatchPublisher performanceInfoBatchPublisher;
+    private final UserRepository userRepository;
 
     @Value("${email-info-queue}")
     private String emailQueueName;
@@ -28,22 +43,61 @@ public class MessageSenderImpl implements MessageSender {
     @Value("${info-queue}")
     private String infoQueueName;
 
+    @Value("${email-info-page-size:500}")
+    private int emailFanOutPageSize;
+
+    @Value("${email-info-batch-enabled:false}")
+    private boolean emailBatchEnabled;
+
+    @Value("${email-info-batch-size:100}")
+    private int emailBatchSize;
+
+    @Value("${email-info-batch-queue:info-email-batch}")
+    private String emailBatchQueueName;
+
     @Override
-    public void sendEmailInfo(Book book) {
-        for (User user : book.getCategory().getUsers()) {
-            rabbitTemplate.convertAndSend(emailQueueName, infoMessageMapper.toInfoMessage(book, user));
-        }
+    public void sendEmailInfo(BookSnapshot book) {
+        int pageSize = emailBatchEnabled ? emailBatchSize : emailFanOutPageSize;
+        Pageable page = PageRequest.ofSize(pageSize);
+        int afterId = 0;
+        List<Subscriber> subscribers;
+        do {
+            subscribers = userRepository.findSubscribersAfter(book.categoryId(), afterId, page);
+            if (subscribers.isEmpty()) {
+                return;
+            }
+            if (emailBatchEnabled) {
+                messageTransport.publish(emailBatchQueueName,
+                        infoMessageMapper.toBatchedInfoMessage(book, subscribers), book.id(), null);
+            } else {
+                for (Subscriber subscriber : subscribers) {
+                    messageTransport.publish(emailQueueName,
+                            infoMessageMapper.toInfoMessage(book, subscriber), book.id(), subscriber.getUsername());
+                }
+            }
+            afterId = subscribers.get(subscribers.size() - 1).getId();
+        } while (subscribers.size() == pageSize);
     }
 
     @Override
-    public void sendInfo(String info) {
-        rabbitTemplate.convertAndSend(infoQueueName, info);
+    public void sendInfo(AuditMessage info) {
+        messageTransport.publish(infoQueueName, info, 0, null);
     }
 
     @Override
-    public void sendPerformanceInfo(User user, long executionTime,
+    public void sendLegacyInfo(String info) {
+        messageTransport.publish(infoQueueName, info, 0, null);
+    }
+
+    @Override
+    public void sendPerformanceInfo(User user, ExecutionMeasurement measurement,
                                     String toShortString, LocalDateTime startMethodDateTime) {
-        rabbitTemplate.convertAndSend(performanceQueueName, performanceInfoMapper.toPerformanceInfo(user, executionTime,
-                toShortString, startMethodDateTime));
+        PerformanceInfo performanceInfo = performanceInfoMapper.toPerformanceInfo(user, measurement,
+                toShortString, startMethodDateTime);
+        if (performanceInfoBatchPublisher.isEnabled()) {
+            performanceInfoBatchPublisher.submit(performanceInfo);
+        } else {
+            telemetryLane.publish(performanceQueueName, performanceInfo, 0, user.getUsername());
+        }
     }
 }
@@ -0,0 +1,226 @@
+package pl.zajonz.librarytest.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only, memory-mapped spool for AMQP messages that could not be handed to the broker.
+ * The file starts with a header holding the write position, read position and pending message
+ * count, followed by records of: timestamp, queue, content type, string headers and body.
+ * Once every record has been drained both positions are reset to the start of the record area.
+ * When a record does not fit, the records not yet drained are copied to the start of the record
+ * area, provided the copy does not overlap them, and both positions are switched with a single
+ * write, so a crash at any point leaves either the old or the new copy in use.
+ */
+@Slf4j
+@Component
+public class MessageSpool {
+
+    private static final int WRITE_POSITION_OFFSET = 0;
+    private static final int READ_POSITION_OFFSET = 4;
+    private static final int PENDING_COUNT_OFFSET = 8;
+    private static final int HEADER_SIZE = 16;
+
+    @Value("${message-spool-enabled:false}")
+    private boolean enabled;
+
+    @Value("${message-spool-path:message-spool.dat}")
+    private String path;
+
+    @Value("${message-spool-capacity-bytes:67108864}")
+    private int capacity;
+
+    private final AtomicLong drainedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private MappedByteBuffer buffer;
+    // bytes the records have been moved towards the start, keeps peeked positions valid
+    private long compactedBytes;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Path file = Path.of(path);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+        int writePosition = buffer.getInt(WRITE_POSITION_OFFSET);
+        int readPosition = buffer.getInt(READ_POSITION_OFFSET);
+        if (writePosition < HEADER_SIZE || writePosition > capacity
+                || readPosition < HEADER_SIZE || readPosition > writePosition) {
+            reset();
+        } else if (getPendingCount() > 0) {
+            log.info("Message spool {} holds {} messages from a previous run", path, getPendingCount());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized boolean append(String queueName, Message message) {
+        byte[] queue = queueName.getBytes(StandardCharsets.UTF_8);
+        String contentType = message.getMessageProperties().getContentType();
+        byte[] contentTypeBytes = (contentType == null ? "" : contentType).getBytes(StandardCharsets.UTF_8);
+        Map<byte[], byte[]> headers = new LinkedHashMap<>();
+        int headersSize = Integer.BYTES;
+        for (Map.Entry<String, Object> header : message.getMessageProperties().getHeaders().entrySet()) {
+            if (header.getValue() instanceof String value) {
+                byte[] key = header.getKey().getBytes(StandardCharsets.UTF_8);
+                byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+                headers.put(key, valueBytes);
+                headersSize += 2 * Integer.BYTES + key.length + valueBytes.length;
+            }
+        }
+        byte[] body = message.getBody();
+        int recordSize = Long.BYTES + 3 * Integer.BYTES + queue.length + contentTypeBytes.length
+                + headersSize + body.length;
+
+        if (buffer.getInt(WRITE_POSITION_OFFSET) + recordSize > capacity && !compact(recordSize)) {
+            droppedCount.incrementAndGet();
+            return false;
+        }
+        int writePosition = buffer.getInt(WRITE_POSITION_OFFSET);
+        buffer.position(writePosition);
+        buffer.putLong(System.currentTimeMillis());
+        putBytes(queue);
+        putBytes(contentTypeBytes);
+        buffer.putInt(headers.size());
+        headers.forEach((key, value) -> {
+            putBytes(key);
+            putBytes(value);
+        });
+        putBytes(body);
+        buffer.putInt(WRITE_POSITION_OFFSET, buffer.position());
+        buffer.putLong(PENDING_COUNT_OFFSET, buffer.getLong(PENDING_COUNT_OFFSET) + 1);
+        return true;
+    }
+
+    public synchronized SpooledMessage peek() {
+        int readPosition = buffer.getInt(READ_POSITION_OFFSET);
+        if (readPosition >= buffer.getInt(WRITE_POSITION_OFFSET)) {
+            return null;
+        }
+        buffer.position(readPosition);
+        buffer.getLong();
+        String queueName = getString();
+        MessageProperties properties = new MessageProperties();
+        String contentType = getString();
+        if (!contentType.isEmpty()) {
+            properties.setContentType(contentType);
+        }
+        int headerCount = buffer.getInt();
+        for (int i = 0; i < headerCount; i++) {
+            properties.setHeader(getString(), getString());
+        }
+        byte[] body = new byte[buffer.getInt()];
+        buffer.get(body);
+        return new SpooledMessage(queueName, new Message(body, properties), buffer.position() + compactedBytes);
+    }
+
+    public synchronized void remove(SpooledMessage spooledMessage) {
+        drainedCount.incrementAndGet();
+        int nextPosition = (int) (spooledMessage.nextPosition() - compactedBytes);
+        if (nextPosition >= buffer.getInt(WRITE_POSITION_OFFSET)) {
+            reset();
+            return;
+        }
+        buffer.putInt(READ_POSITION_OFFSET, nextPosition);
+        buffer.putLong(PENDING_COUNT_OFFSET, buffer.getLong(PENDING_COUNT_OFFSET) - 1);
+    }
+
+    public synchronized boolean isEmpty() {
+        return buffer == null || buffer.getInt(READ_POSITION_OFFSET) >= buffer.getInt(WRITE_POSITION_OFFSET);
+    }
+
+    public synchronized long getSizeBytes() {
+        return buffer == null ? 0 : buffer.getInt(WRITE_POSITION_OFFSET) - buffer.getInt(READ_POSITION_OFFSET);
+    }
+
+    public synchronized long getPendingCount() {
+        return buffer == null ? 0 : buffer.getLong(PENDING_COUNT_OFFSET);
+    }
+
+    public synchronized long getLagMillis() {
+        if (isEmpty()) {
+            return 0;
+        }
+        return System.currentTimeMillis() - buffer.getLong(buffer.getInt(READ_POSITION_OFFSET));
+    }
+
+    public long getDrainedCount() {
+        return drainedCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    private boolean compact(int recordSize) {
+        int readPosition = buffer.getInt(READ_POSITION_OFFSET);
+        int writePosition = buffer.getInt(WRITE_POSITION_OFFSET);
+        int pendingBytes = writePosition - readPosition;
+        int freedBytes = readPosition - HEADER_SIZE;
+        if (HEADER_SIZE + pendingBytes + recordSize > capacity || freedBytes < pendingBytes) {
+            return false;
+        }
+        ByteBuffer pending = buffer.duplicate().position(readPosition).limit(writePosition);
+        buffer.duplicate().position(HEADER_SIZE).put(pending);
+        setPositions(HEADER_SIZE + pendingBytes, HEADER_SIZE);
+        compactedBytes += freedBytes;
+        return true;
+    }
+
+    private void reset() {
+        setPositions(HEADER_SIZE, HEADER_SIZE);
+        buffer.putLong(PENDING_COUNT_OFFSET, 0);
+    }
+
+    private void setPositions(int writePosition, int readPosition) {
+        // one write, so the pair is never seen half updated
+        buffer.putLong(WRITE_POSITION_OFFSET, (long) writePosition << Integer.SIZE | readPosition);
+    }
+
+    private void putBytes(byte[] bytes) {
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private String getString() {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public record SpooledMessage(String queueName, Message message, long nextPosition) {
+    }
+}
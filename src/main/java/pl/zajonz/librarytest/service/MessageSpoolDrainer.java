@@ -0,0 +1,69 @@
+package pl.zajonz.librarytest.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends spooled messages to the broker, oldest first. The first message the broker accepts ends the
+ * degraded state, so new messages are published directly again while the backlog is drained.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "message-transport", havingValue = "rabbit", matchIfMissing = true)
+public class MessageSpoolDrainer {
+
+    private final MessageSpool messageSpool;
+    private final BrokerHealthGate brokerHealthGate;
+    private final RabbitTemplate rabbitTemplate;
+
+    @Value("${message-spool-drain-interval-ms:1000}")
+    private long drainIntervalMs;
+
+    private ScheduledExecutorService drainer;
+
+    @PostConstruct
+    public void start() {
+        if (!messageSpool.isEnabled()) {
+            return;
+        }
+        drainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "message-spool-drainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        drainer.scheduleWithFixedDelay(this::drain, drainIntervalMs, drainIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (drainer == null) {
+            return;
+        }
+        drainer.shutdown();
+        drainer.awaitTermination(drainIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    void drain() {
+        MessageSpool.SpooledMessage spooledMessage;
+        while ((spooledMessage = messageSpool.peek()) != null) {
+            try {
+                rabbitTemplate.send(spooledMessage.queueName(), spooledMessage.message());
+            } catch (AmqpException e) {
+                return;
+            }
+            messageSpool.remove(spooledMessage);
+            brokerHealthGate.recordRecovery();
+        }
+        brokerHealthGate.recordRecovery();
+    }
+}
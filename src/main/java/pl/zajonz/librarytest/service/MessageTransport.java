@@ -0,0 +1,15 @@
+package pl.zajonz.librarytest.service;
+
+/**
+ * Delivers outgoing messages to a named queue. The implementation is chosen with the
+ * {@code message-transport} property: {@code rabbit} (default), {@code in-process} or {@code file}.
+ */
+public interface MessageTransport {
+
+    default void publish(String queueName, Object payload) {
+        publish(queueName, payload, 0, null);
+    }
+
+    void publish(String queueName, Object payload, int bookId, String user);
+
+}
@@ -0,0 +1,129 @@
+package pl.zajonz.librarytest.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.zajonz.librarytest.model.PerformanceInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffers performance records and publishes them as lists on {@code performance-info-batch-queue},
+ * separate from the single-record {@code performance-info-queue} its consumers expect.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PerformanceInfoBatchPublisher {
+
+    private final MessageTransport messageTransport;
+
+    @Value("${performance-info-batch-queue:info-performance-batch}")
+    private String performanceBatchQueueName;
+
+    @Value("${performance-info-batch-enabled:false}")
+    private boolean enabled;
+
+    @Value("${performance-info-batch-size:100}")
+    private int batchSize;
+
+    @Value("${performance-info-batch-capacity:10000}")
+    private int capacity;
+
+    @Value("${performance-info-batch-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong publishedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private BlockingQueue<PerformanceInfo> buffer;
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        buffer = new ArrayBlockingQueue<>(capacity);
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "performance-info-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(flushIntervalMs, TimeUnit.MILLISECONDS);
+        flush();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean submit(PerformanceInfo performanceInfo) {
+        if (!buffer.offer(performanceInfo)) {
+            droppedCount.incrementAndGet();
+            return false;
+        }
+        if (buffer.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                flushRequested.set(false);
+            }
+        }
+        return true;
+    }
+
+    void flush() {
+        flushRequested.set(false);
+        List<PerformanceInfo> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            try {
+                messageTransport.publish(performanceBatchQueueName, batch);
+                publishedCount.addAndGet(batch.size());
+            } catch (AmqpException e) {
+                failedCount.addAndGet(batch.size());
+                log.warn("Could not publish batch of {} performance records", batch.size(), e);
+            }
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    public int getQueueDepth() {
+        return buffer == null ? 0 : buffer.size();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+}
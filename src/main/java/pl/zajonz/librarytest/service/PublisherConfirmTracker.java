@@ -0,0 +1,238 @@
+package pl.zajonz.librarytest.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes with correlated publisher confirms. Each message is kept until its confirm arrives;
+ * nacked, returned or unconfirmed messages (after {@code publisher-confirms-timeout-ms}) are retried
+ * with exponential backoff, and the number of unconfirmed messages is capped so a slow broker pushes
+ * back on callers. The returned future completes once the broker has confirmed the message, or fails
+ * when the attempts run out, so a caller can keep its copy until then.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PublisherConfirmTracker {
+
+    private final RabbitTemplate rabbitTemplate;
+
+    @Value("${publisher-confirms-enabled:false}")
+    private boolean enabled;
+
+    @Value("${publisher-confirms-max-outstanding:1000}")
+    private int maxOutstanding;
+
+    @Value("${publisher-confirms-backpressure-timeout-ms:100}")
+    private long backpressureTimeoutMs;
+
+    @Value("${publisher-confirms-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    @Value("${publisher-confirms-max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${publisher-confirms-retry-backoff-ms:200}")
+    private long retryBackoffMs;
+
+    private final Map<String, PendingPublish> outstanding = new ConcurrentHashMap<>();
+    private final AtomicLong confirmedCount = new AtomicLong();
+    private final AtomicLong retriedCount = new AtomicLong();
+    private final AtomicLong timedOutCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private Semaphore permits;
+    private ScheduledExecutorService retrier;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        permits = new Semaphore(maxOutstanding);
+        retrier = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "publisher-confirm-retrier");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rabbitTemplate.setMandatory(true);
+        rabbitTemplate.setConfirmCallback(this::handleConfirm);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (retrier == null) {
+            return;
+        }
+        retrier.shutdown();
+        retrier.awaitTermination(retryBackoffMs, TimeUnit.MILLISECONDS);
+        outstanding.keySet().forEach(id -> {
+            PendingPublish pending = outstanding.remove(id);
+            if (pending != null) {
+                giveUp(pending, "shutting down");
+            }
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CompletableFuture<Void> send(String queueName, Message message) {
+        try {
+            if (!permits.tryAcquire(backpressureTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new AmqpException("More than " + maxOutstanding + " messages are waiting for a confirm");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException(e);
+        }
+        CompletableFuture<Void> confirmed = new CompletableFuture<>();
+        try {
+            publish(new PendingPublish(queueName, message, 1, confirmed));
+        } catch (AmqpException e) {
+            permits.release();
+            throw e;
+        }
+        return confirmed;
+    }
+
+    /**
+     * Sends and blocks until the broker has confirmed the message, retries included. The wait is
+     * bounded by the confirm timeout and backoff of every attempt.
+     */
+    public void sendAndAwait(String queueName, Message message) {
+        CompletableFuture<Void> confirmed = send(queueName, message);
+        long maxWaitMs = maxAttempts * confirmTimeoutMs + (retryBackoffMs << maxAttempts);
+        try {
+            confirmed.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException(e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof AmqpException cause ? cause : new AmqpException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new AmqpException("Message to " + queueName + " not confirmed within " + maxWaitMs + " ms");
+        }
+    }
+
+    void handleConfirm(CorrelationData correlationData, boolean ack, String cause) {
+        if (correlationData == null) {
+            return;
+        }
+        PendingPublish pending = outstanding.remove(correlationData.getId());
+        if (pending == null) {
+            return;
+        }
+        if (ack && correlationData.getReturned() == null) {
+            confirmedCount.incrementAndGet();
+            permits.release();
+            pending.confirmed().complete(null);
+            return;
+        }
+        String reason = correlationData.getReturned() != null
+                ? correlationData.getReturned().getReplyText()
+                : cause;
+        retry(pending, reason);
+    }
+
+    private void publish(PendingPublish pending) {
+        CorrelationData correlationData = new CorrelationData(UUID.randomUUID().toString());
+        outstanding.put(correlationData.getId(), pending);
+        try {
+            rabbitTemplate.send(pending.queueName(), pending.message(), correlationData);
+        } catch (AmqpException e) {
+            outstanding.remove(correlationData.getId());
+            throw e;
+        }
+        try {
+            retrier.schedule(() -> timeOut(correlationData.getId()), confirmTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // shutting down, stop() gives up on everything still outstanding
+        }
+    }
+
+    private void timeOut(String correlationId) {
+        PendingPublish pending = outstanding.remove(correlationId);
+        if (pending == null) {
+            return;
+        }
+        timedOutCount.incrementAndGet();
+        retry(pending, "no confirm within " + confirmTimeoutMs + " ms");
+    }
+
+    private void retry(PendingPublish pending, String reason) {
+        if (pending.attempt() >= maxAttempts) {
+            giveUp(pending, reason);
+            return;
+        }
+        retriedCount.incrementAndGet();
+        long delayMs = retryBackoffMs << (pending.attempt() - 1);
+        PendingPublish next = new PendingPublish(pending.queueName(), pending.message(), pending.attempt() + 1,
+                pending.confirmed());
+        try {
+            retrier.schedule(() -> {
+                try {
+                    publish(next);
+                } catch (AmqpException e) {
+                    retry(next, e.getMessage());
+                }
+            }, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            giveUp(pending, reason);
+        }
+    }
+
+    private void giveUp(PendingPublish pending, String reason) {
+        permits.release();
+        failedCount.incrementAndGet();
+        log.warn("Message to {} not confirmed after {} attempts ({})", pending.queueName(), pending.attempt(),
+                reason);
+        pending.confirmed().completeExceptionally(new AmqpException("Message to " + pending.queueName()
+                + " not confirmed after " + pending.attempt() + " attempts: " + reason));
+    }
+
+    public int getOutstandingCount() {
+        return permits == null ? 0 : maxOutstanding - permits.availablePermits();
+    }
+
+    public long getConfirmedCount() {
+        return confirmedCount.get();
+    }
+
+    public long getRetriedCount() {
+        return retriedCount.get();
+    }
+
+    public long getTimedOutCount() {
+        return timedOutCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    private record PendingPublish(String queueName, Message message, int attempt,
+                                  CompletableFuture<Void> confirmed) {
+    }
+}
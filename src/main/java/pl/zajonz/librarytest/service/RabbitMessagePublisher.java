@@ -0,0 +1,102 @@
+package pl.zajonz.librarytest.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import pl.zajonz.librarytest.monitoring.BrokerPublishEvent;
+import pl.zajonz.librarytest.monitoring.TraceContext;
+
+import java.time.Instant;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "message-transport", havingValue = "rabbit", matchIfMissing = true)
+public class RabbitMessagePublisher implements MessageTransport {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final MeterRegistry meterRegistry;
+    private final MessageSpool messageSpool;
+    private final BrokerHealthGate brokerHealthGate;
+    private final PublisherConfirmTracker publisherConfirmTracker;
+
+    @PostConstruct
+    public void registerTraceHeaders() {
+        rabbitTemplate.addBeforePublishPostProcessors(message -> {
+            TraceContext.applyHeaders(message.getMessageProperties());
+            message.getMessageProperties().setHeader(TraceContext.PUBLISHED_AT_HEADER, Instant.now().toString());
+            return message;
+        });
+    }
+
+    @Override
+    public void publish(String queueName, Object payload, int bookId, String user) {
+        BrokerPublishEvent event = new BrokerPublishEvent();
+        event.begin();
+        // once the broker is healthy again new messages go straight to it while the drainer catches up
+        if (messageSpool.isEnabled() && brokerHealthGate.isDegraded()) {
+            try {
+                spool(queueName, payload, null);
+                event.setSpooled(true);
+            } finally {
+                commit(event, queueName, bookId, user);
+            }
+            return;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            if (publisherConfirmTracker.isEnabled()) {
+                publisherConfirmTracker.sendAndAwait(queueName,
+                        rabbitTemplate.getMessageConverter().toMessage(payload, new MessageProperties()));
+            } else {
+                rabbitTemplate.convertAndSend(queueName, payload);
+            }
+            brokerHealthGate.recordPublish(sample.stop(publishTimer(queueName, "success")));
+        } catch (AmqpException e) {
+            sample.stop(publishTimer(queueName, "failure"));
+            event.setFailed(true);
+            if (!messageSpool.isEnabled()) {
+                throw e;
+            }
+            brokerHealthGate.recordFailure(e);
+            spool(queueName, payload, e);
+            event.setSpooled(true);
+        } finally {
+            commit(event, queueName, bookId, user);
+        }
+    }
+
+    private void spool(String queueName, Object payload, AmqpException cause) {
+        MessageProperties properties = new MessageProperties();
+        TraceContext.applyHeaders(properties);
+        properties.setHeader(TraceContext.SPOOLED_AT_HEADER, Instant.now().toString());
+        Message message = rabbitTemplate.getMessageConverter().toMessage(payload, properties);
+        if (!messageSpool.append(queueName, message)) {
+            throw cause != null ? cause : new AmqpException("Broker degraded and message spool is full");
+        }
+    }
+
+    private void commit(BrokerPublishEvent event, String queueName, int bookId, String user) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.setQueue(queueName);
+            event.setBookId(bookId);
+            event.setUser(user);
+            event.commit();
+        }
+    }
+
+    private Timer publishTimer(String queueName, String outcome) {
+        return Timer.builder("library.rabbit.publish")
+                .description("Time spent publishing a message to RabbitMQ")
+                .tag("queue", queueName)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,120 @@
+package pl.zajonz.librarytest.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.zajonz.librarytest.monitoring.TraceContext;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes performance records on a bounded, low priority single-thread executor, so a flood of them
+ * never holds up request threads. A full lane sheds records according to its policy. Messages relayed
+ * from the outbox must not use it: a queued message is lost on shutdown or a crash after its outbox
+ * row has already been deleted.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TelemetryLane {
+
+    private final MessageTransport messageTransport;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${telemetry-lane-enabled:false}")
+    private boolean enabled;
+
+    @Value("${telemetry-lane-capacity:1000}")
+    private int capacity;
+
+    @Value("${telemetry-lane-priority:2}")
+    private int priority;
+
+    @Value("${telemetry-lane-shedding:DROP_NEWEST}")
+    private SheddingPolicy shedding;
+
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private ThreadPoolExecutor executor;
+    private Timer latency;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(capacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "telemetry-lane");
+                    thread.setDaemon(true);
+                    thread.setPriority(priority);
+                    return thread;
+                }, rejectionHandler());
+        latency = Timer.builder("library.telemetry.lane.latency")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    public void publish(String queueName, Object payload, int bookId, String user) {
+        if (!enabled) {
+            messageTransport.publish(queueName, payload, bookId, user);
+            return;
+        }
+        long submittedAt = System.nanoTime();
+        executor.execute(TraceContext.wrap(() -> {
+            try {
+                messageTransport.publish(queueName, payload, bookId, user);
+            } catch (RuntimeException e) {
+                failedCount.incrementAndGet();
+                log.warn("Could not publish message to {} on the telemetry lane", queueName, e);
+            } finally {
+                latency.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+            }
+        }));
+    }
+
+    public int getQueueDepth() {
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    private RejectedExecutionHandler rejectionHandler() {
+        RejectedExecutionHandler handler = switch (shedding) {
+            case DROP_NEWEST -> new ThreadPoolExecutor.DiscardPolicy();
+            case DROP_OLDEST -> new ThreadPoolExecutor.DiscardOldestPolicy();
+        };
+        return (runnable, executor) -> {
+            droppedCount.incrementAndGet();
+            handler.rejectedExecution(runnable, executor);
+        };
+    }
+
+    public enum SheddingPolicy {
+        DROP_NEWEST,
+        DROP_OLDEST
+    }
+}
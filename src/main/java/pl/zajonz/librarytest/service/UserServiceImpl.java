@@ -12,6 +12,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pl.zajonz.librarytest.event.model.InfoEvent;
+import pl.zajonz.librarytest.event.model.InfoEventKind;
 import pl.zajonz.librarytest.model.Book;
 import pl.zajonz.librarytest.model.User;
 import pl.zajonz.librarytest.repository.UserRepository;
@@ -41,7 +42,7 @@ public class UserServiceImpl implements UserDetailsService, UserService {
 
         User saved = userRepository.save(user);
 
-        publisher.publishEvent(new InfoEvent(user + " has been created"));
+        publisher.publishEvent(new InfoEvent(InfoEventKind.USER_CREATED, user.getId(), null, null));
 
         return saved;
     }
@@ -0,0 +1,13 @@
+--liquibase formatted sql
+--changeset zajonz:1
+
+CREATE TABLE `outbox_event`
+(
+    `id`         BIGINT        NOT NULL AUTO_INCREMENT,
+    `type`       VARCHAR(20)   NOT NULL,
+    `book_id`    INT           NULL,
+    `payload`    VARCHAR(4000) NULL,
+    `trace_id`   VARCHAR(64)   NULL,
+    `created_at` TIMESTAMP(6)  NOT NULL,
+    PRIMARY KEY (`id`)
+);
@@ -0,0 +1,7 @@
+--liquibase formatted sql
+--changeset zajonz:1
+
+ALTER TABLE `outbox_event`
+    ADD COLUMN `info_kind` VARCHAR(30) NULL;
+ALTER TABLE `outbox_event`
+    ADD COLUMN `subject_id` INT NULL;
@@ -0,0 +1,7 @@
+--liquibase formatted sql
+--changeset zajonz:1
+
+ALTER TABLE `outbox_event`
+    ADD COLUMN `related_id` INT NULL;
+ALTER TABLE `outbox_event`
+    ADD COLUMN `actor` VARCHAR(255) NULL;
@@ -0,0 +1,11 @@
+--liquibase formatted sql
+--changeset zajonz:1
+
+CREATE TABLE `id_generator`
+(
+    `name`     VARCHAR(50) NOT NULL,
+    `next_val` BIGINT      NOT NULL,
+    PRIMARY KEY (`name`)
+);
+
+INSERT INTO `id_generator`(`name`, `next_val`) SELECT 'book', COALESCE(MAX(`id`), 0) + 1 FROM `book`;
@@ -0,0 +1,10 @@
+--liquibase formatted sql
+--changeset zajonz:1 dbms:mysql
+
+ALTER TABLE `outbox_event`
+    MODIFY COLUMN `payload` TEXT NULL;
+
+--changeset zajonz:2 dbms:h2
+
+ALTER TABLE `outbox_event`
+    ALTER COLUMN `payload` SET DATA TYPE CLOB;
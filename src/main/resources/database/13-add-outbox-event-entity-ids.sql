@@ -0,0 +1,5 @@
+--liquibase formatted sql
+--changeset zajonz:1
+
+ALTER TABLE `outbox_event`
+    ADD COLUMN `entity_ids` TEXT NULL;
@@ -0,0 +1,83 @@
+package pl.zajonz.librarytest.adnotation;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import pl.zajonz.librarytest.model.ExecutionMeasurement;
+import pl.zajonz.librarytest.model.User;
+import pl.zajonz.librarytest.monitoring.MethodLatencyRegistry;
+import pl.zajonz.librarytest.monitoring.MonitoringSampler;
+import pl.zajonz.librarytest.monitoring.SqlStatementBudget;
+import pl.zajonz.librarytest.repository.UserRepository;
+import pl.zajonz.librarytest.service.MessageSender;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MethodMonitoringAspectTest {
+
+    @InjectMocks
+    private MethodMonitoringAspect methodMonitoringAspect;
+    @Mock
+    private MessageSender messageSender;
+    @Mock
+    private MethodLatencyRegistry methodLatencyRegistry;
+    @Mock
+    private MonitoringSampler monitoringSampler;
+    @Mock
+    private SqlStatementBudget sqlStatementBudget;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private ProceedingJoinPoint joinPoint;
+    @Mock
+    private Signature signature;
+    @Mock
+    private MonitorMethod monitorMethod;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testMeasureExecutionTime_UserPrincipal_ResultsInPrincipalBeingReportedWithoutLookup() throws Throwable {
+        //given
+        User user = User.builder()
+                .id(7)
+                .username("Test")
+                .email("test@test.pl")
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(signature.toShortString()).thenReturn("BookController.getAll(..)");
+        when(joinPoint.proceed()).thenReturn("result");
+        when(sqlStatementBudget.check(eq("BookController.getAll(..)"), any(ExecutionMeasurement.class)))
+                .thenReturn(true);
+        when(monitoringSampler.shouldReport(eq("BookController.getAll(..)"), eq(monitorMethod), anyLong()))
+                .thenReturn(true);
+
+        //when
+        Object result = methodMonitoringAspect.measureExecutionTime(joinPoint, monitorMethod);
+
+        //then
+        assertEquals("result", result);
+        verify(messageSender, times(1)).sendPerformanceInfo(
+                argThat(reported -> reported.getId() == 7 && reported.getEmail().equals("test@test.pl")),
+                any(ExecutionMeasurement.class), eq("BookController.getAll(..)"), any(LocalDateTime.class));
+        verifyNoInteractions(userRepository);
+    }
+}
@@ -0,0 +1,156 @@
+package pl.zajonz.librarytest.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import pl.zajonz.librarytest.LibraryTestApplication;
+import pl.zajonz.librarytest.common.BorrowConcurrency;
+import pl.zajonz.librarytest.model.Book;
+import pl.zajonz.librarytest.model.Category;
+import pl.zajonz.librarytest.repository.BookRepository;
+import pl.zajonz.librarytest.repository.CategoryRepository;
+import pl.zajonz.librarytest.service.BookService;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Borrow-and-return throughput and latency percentiles (SampleTime reports p99) for each
+ * {@link BorrowConcurrency} strategy, with 16 threads competing for one or a few hot books. Each trial
+ * starts the application on the test profile with an in-memory H2 database and a pool of 10
+ * connections. Run {@link #main(String[])} from the test classpath.
+ * <p>
+ * A borrow that loses the race is counted apart from one that succeeds; compare strategies by the
+ * {@code borrowed} counter (successful borrows per second), not by the raw operation rate, which
+ * rewards failing fast. H2 locks rows differently from MySQL (no gap locks, its own lock timeout and
+ * deadlock detection), so the numbers rank the strategies on this setup only; pass a MySQL
+ * {@code spring.datasource.url} through {@code BENCHMARK_DATASOURCE_URL} to measure the real thing.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Threads(16)
+@Fork(1)
+public class BorrowContentionBenchmark {
+
+    private static final String USERNAME = "TestUserE";
+    private static final String ROLE = "[ROLE_EMPLOYEE]";
+
+    @Param({"PESSIMISTIC", "OPTIMISTIC", "CONDITIONAL_UPDATE", "STRIPED_LOCK"})
+    private BorrowConcurrency strategy;
+
+    @Param({"1", "8"})
+    private int hotBooks;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private int[] bookIds;
+    private LocalDate borrowTo;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String datasourceUrl = System.getenv().getOrDefault("BENCHMARK_DATASOURCE_URL",
+                "jdbc:h2:mem:memDb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        context = new SpringApplicationBuilder(LibraryTestApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=" + datasourceUrl,
+                        "borrow-concurrency=" + strategy,
+                        "borrow-concurrency-max-attempts=5",
+                        "spring.datasource.hikari.maximum-pool-size=10",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+        bookService = context.getBean(BookService.class);
+        BookRepository bookRepository = context.getBean(BookRepository.class);
+        Category category = context.getBean(CategoryRepository.class)
+                .save(Category.builder().name("benchmark").build());
+        bookIds = new int[hotBooks];
+        for (int i = 0; i < hotBooks; i++) {
+            bookIds[i] = bookService.create(Book.builder()
+                    .title("Hot book " + i)
+                    .author("Benchmark")
+                    .build(), category.getId()).getId();
+        }
+        bookRepository.flush();
+        borrowTo = LocalDate.now().plusDays(14);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Tries to borrow a random hot book and gives it back when that succeeded. Losing the race is a
+     * normal outcome and is counted as {@code lost}.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void borrowAndReturn(Outcomes outcomes) {
+        if (tryBorrowAndReturn()) {
+            outcomes.borrowed++;
+        } else {
+            outcomes.lost++;
+        }
+    }
+
+    /**
+     * Latency of one attempt, won or lost.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean borrowAndReturnLatency() {
+        return tryBorrowAndReturn();
+    }
+
+    private boolean tryBorrowAndReturn() {
+        int bookId = bookIds[ThreadLocalRandom.current().nextInt(bookIds.length)];
+        try {
+            bookService.borrowBook(USERNAME, bookId, borrowTo);
+        } catch (RuntimeException e) {
+            return false;
+        }
+        bookService.returnBook(USERNAME, ROLE, bookId);
+        return true;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcomes {
+
+        public long borrowed;
+        public long lost;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            borrowed = 0;
+            lost = 0;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BorrowContentionBenchmark.class.getSimpleName()).build()).run();
+    }
+}
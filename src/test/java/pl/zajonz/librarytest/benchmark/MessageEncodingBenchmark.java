@@ -0,0 +1,116 @@
+package pl.zajonz.librarytest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
+import pl.zajonz.librarytest.common.MessageEncoding;
+import pl.zajonz.librarytest.model.AuditMessage;
+import pl.zajonz.librarytest.model.InfoMessage;
+import pl.zajonz.librarytest.model.PerformanceInfo;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode time and bytes per message for each {@link MessageEncoding}. Run {@link #main(String[])}
+ * from the test classpath: it prints the payload sizes and then starts JMH.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageEncodingBenchmark {
+
+    @Param({"JSON", "SMILE", "CBOR"})
+    private MessageEncoding encoding;
+
+    private MessageConverter converter;
+    private PerformanceInfo performanceInfo;
+    private InfoMessage infoMessage;
+    private AuditMessage info;
+
+    @Setup
+    public void setUp() {
+        converter = encoding.createConverter();
+        performanceInfo = performanceInfo();
+        infoMessage = infoMessage();
+        info = AuditMessage.builder()
+                .entityType("book")
+                .action("created")
+                .entityIds(List.of(42))
+                .relatedId(3)
+                .occurredAt(Instant.parse("2023-05-01T10:15:30Z"))
+                .build();
+    }
+
+    @Benchmark
+    public byte[] encodePerformanceInfo() {
+        return converter.toMessage(performanceInfo, new MessageProperties()).getBody();
+    }
+
+    @Benchmark
+    public byte[] encodeInfoMessage() {
+        return converter.toMessage(infoMessage, new MessageProperties()).getBody();
+    }
+
+    @Benchmark
+    public byte[] encodeInfo() {
+        return converter.toMessage(info, new MessageProperties()).getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        System.out.printf("%-6s %18s %12s %6s%n", "", "PerformanceInfo", "InfoMessage", "info");
+        for (MessageEncoding encoding : MessageEncoding.values()) {
+            MessageEncodingBenchmark benchmark = new MessageEncodingBenchmark();
+            benchmark.encoding = encoding;
+            benchmark.setUp();
+            System.out.printf("%-6s %18d %12d %6d%n", encoding, benchmark.encodePerformanceInfo().length,
+                    benchmark.encodeInfoMessage().length, benchmark.encodeInfo().length);
+        }
+        new Runner(new OptionsBuilder().include(MessageEncodingBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static PerformanceInfo performanceInfo() {
+        PerformanceInfo performanceInfo = new PerformanceInfo();
+        performanceInfo.setId(17);
+        performanceInfo.setEmail("jan.kowalski@example.com");
+        performanceInfo.setExecutionTime(12);
+        performanceInfo.setExecutionTimeNanos(12_345_678L);
+        performanceInfo.setCpuTimeNanos(4_567_890L);
+        performanceInfo.setAllocatedBytes(262_144L);
+        performanceInfo.setSqlStatementCount(3);
+        performanceInfo.setSqlTimeNanos(1_234_567L);
+        performanceInfo.setClassMethodName("BookController.borrowBook(..)");
+        performanceInfo.setMethodStartTime(LocalDateTime.of(2023, 5, 1, 10, 15, 30, 123_000_000));
+        return performanceInfo;
+    }
+
+    private static InfoMessage infoMessage() {
+        InfoMessage infoMessage = new InfoMessage();
+        infoMessage.setBookId(42);
+        infoMessage.setBook_title("Pan Tadeusz");
+        infoMessage.setBook_author("Adam Mickiewicz");
+        infoMessage.setBook_category("Poetry");
+        infoMessage.setEmail("jan.kowalski@example.com");
+        infoMessage.setUser_firstName("Jan");
+        infoMessage.setUser_lastName("Kowalski");
+        return infoMessage;
+    }
+}
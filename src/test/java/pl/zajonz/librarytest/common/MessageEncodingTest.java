@@ -0,0 +1,36 @@
+package pl.zajonz.librarytest.common;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJackson2MessageConverter;
+import pl.zajonz.librarytest.model.PerformanceInfo;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageEncodingTest {
+
+    @ParameterizedTest
+    @EnumSource(MessageEncoding.class)
+    void testCreateConverter_ResultsInPayloadRoundTripWithContentType(MessageEncoding encoding) {
+        //given
+        AbstractJackson2MessageConverter converter = encoding.createConverter();
+        PerformanceInfo performanceInfo = new PerformanceInfo();
+        performanceInfo.setId(1);
+        performanceInfo.setEmail("test@test.pl");
+        performanceInfo.setExecutionTimeNanos(123_456_789L);
+        performanceInfo.setClassMethodName("Test.test(..)");
+        performanceInfo.setMethodStartTime(LocalDateTime.of(2023, 5, 1, 10, 15, 30));
+
+        //when
+        Message message = converter.toMessage(performanceInfo, new MessageProperties());
+        Object returned = converter.fromMessage(message);
+
+        //then
+        assertEquals(encoding.getContentType(), message.getMessageProperties().getContentType());
+        assertEquals(performanceInfo, returned);
+    }
+}
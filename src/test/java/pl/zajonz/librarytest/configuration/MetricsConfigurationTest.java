@@ -0,0 +1,59 @@
+package pl.zajonz.librarytest.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class MetricsConfigurationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Test
+    @WithMockUser(username = "Admin", password = "Admin", roles = "EMPLOYEE")
+    void testPrometheus_RoleEmployee_ExposesApplicationMetrics() throws Exception {
+        //given
+        mockMvc.perform(get("/api/v1/books"))
+                .andExpect(status().isOk());
+
+        //when //then
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_count{")))
+                .andExpect(content().string(containsString("uri=\"/api/v1/books\"")))
+                .andExpect(content().string(containsString("library_book_transactions_seconds_count{")))
+                .andExpect(content().string(containsString("library_rabbit_publish_seconds_count{")))
+                .andExpect(content().string(containsString("queue=\"info-performance\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds")))
+                .andExpect(content().string(containsString("hibernate_statements_total")))
+                .andExpect(content().string(containsString("library_performance_batch_dropped_total")));
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "user", roles = "CUSTOMER")
+    void testPrometheus_RoleCustomer_ShouldReturnForbidden() throws Exception {
+        //given
+
+        //when //then
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -16,15 +17,21 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import pl.zajonz.librarytest.common.State;
+import pl.zajonz.librarytest.event.OutboxRelay;
+import pl.zajonz.librarytest.model.AuditMessage;
 import pl.zajonz.librarytest.model.*;
+import pl.zajonz.librarytest.model.command.CheckoutBooksCommand;
 import pl.zajonz.librarytest.model.command.CreateBookCommand;
+import pl.zajonz.librarytest.model.command.ReturnBooksCommand;
 import pl.zajonz.librarytest.repository.BookRepository;
 import pl.zajonz.librarytest.repository.CategoryRepository;
+import pl.zajonz.librarytest.repository.OutboxEventRepository;
 import pl.zajonz.librarytest.repository.UserRepository;
 import pl.zajonz.librarytest.service.MessageSender;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Set;
 
 import static org.hamcrest.Matchers.*;
@@ -57,9 +64,14 @@ class BookControllerTest {
     private MessageSender messageSender;
     @MockBean
     private RabbitTemplate rabbitTemplate;
+    @Autowired
+    private OutboxRelay outboxRelay;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
 
     @AfterEach
     public void clearDatabase() {
+        outboxEventRepository.deleteAll();
         userRepository.deleteAll();
         bookRepository.deleteAll();
         categoryRepository.deleteAll();
@@ -118,12 +130,13 @@ class BookControllerTest {
         assertFalse(createdBook.isBlocked());
         assertEquals(State.READY, createdBook.getState());
 
-        verify(messageSender, times(1)).sendEmailInfo(any(Book.class));
+        outboxRelay.drain();
+        verify(messageSender, times(1)).sendEmailInfo(any(BookSnapshot.class));
         verify(rabbitTemplate, times(1)).convertAndSend(anyString(), any(InfoMessage.class));
-        verify(messageSender, times(1)).sendInfo(anyString());
-        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(1)).sendInfo(any(AuditMessage.class));
+        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
-        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), anyString());
+        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), any(AuditMessage.class));
         verify(rabbitTemplate, times(1)).convertAndSend(anyString(), any(PerformanceInfo.class));
     }
 
@@ -146,11 +159,12 @@ class BookControllerTest {
                 .andExpect(jsonPath("$.timestamp", notNullValue()))
                 .andExpect(jsonPath("$.message", equalTo("Not found category with id: 100")));
 
-        verify(messageSender, times(0)).sendEmailInfo(any(Book.class));
+        outboxRelay.drain();
+        verify(messageSender, times(0)).sendEmailInfo(any(BookSnapshot.class));
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(InfoMessage.class));
-        verify(messageSender, times(0)).sendInfo(anyString());
-        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), anyString());
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(0)).sendInfo(any(AuditMessage.class));
+        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(AuditMessage.class));
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(PerformanceInfo.class));
     }
@@ -179,11 +193,12 @@ class BookControllerTest {
                                 "author has to match the pattern",
                                 "must be greater than or equal to 1")));
 
-        verify(messageSender, times(0)).sendEmailInfo(any(Book.class));
+        outboxRelay.drain();
+        verify(messageSender, times(0)).sendEmailInfo(any(BookSnapshot.class));
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(InfoMessage.class));
-        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), anyString());
-        verify(messageSender, times(0)).sendInfo(anyString());
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(AuditMessage.class));
+        verify(messageSender, times(0)).sendInfo(any(AuditMessage.class));
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(PerformanceInfo.class));
     }
@@ -223,9 +238,10 @@ class BookControllerTest {
         assertEquals(book.getTitle(), savedBook.getTitle());
         assertTrue(savedBook.isBlocked());
 
-        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), anyString());
-        verify(messageSender, times(1)).sendInfo(anyString());
-        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class),any(Long.class),
+        outboxRelay.drain();
+        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), any(AuditMessage.class));
+        verify(messageSender, times(1)).sendInfo(any(AuditMessage.class));
+        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
         verify(rabbitTemplate, times(1)).convertAndSend(anyString(), any(PerformanceInfo.class));
     }
@@ -240,9 +256,10 @@ class BookControllerTest {
                 .andDo(print())
                 .andExpect(status().isForbidden());
 
-        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), anyString());
-        verify(messageSender, times(0)).sendInfo(anyString());
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(Long.class),
+        outboxRelay.drain();
+        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(AuditMessage.class));
+        verify(messageSender, times(0)).sendInfo(any(AuditMessage.class));
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(PerformanceInfo.class));
     }
@@ -259,9 +276,10 @@ class BookControllerTest {
                 .andExpect(jsonPath("$.timestamp", notNullValue()))
                 .andExpect(jsonPath("$.message", equalTo("Not found book with id: 100")));
 
-        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), anyString());
-        verify(messageSender, times(0)).sendInfo(anyString());
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(Long.class),
+        outboxRelay.drain();
+        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(AuditMessage.class));
+        verify(messageSender, times(0)).sendInfo(any(AuditMessage.class));
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(PerformanceInfo.class));
     }
@@ -312,13 +330,79 @@ class BookControllerTest {
         assertNotNull(savedBook.getFromDate());
         assertEquals(State.BORROWED, savedBook.getState());
 
-        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), anyString());
-        verify(messageSender, times(1)).sendInfo(anyString());
+        outboxRelay.drain();
+        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), any(AuditMessage.class));
+        verify(messageSender, times(1)).sendInfo(any(AuditMessage.class));
         verify(rabbitTemplate, times(1)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
     }
 
+    @Test
+    @WithMockUser(username = "user", password = "user", roles = "CUSTOMER")
+    void testCheckoutBooks_RoleCustomer_ResultsInPerItemResults() throws Exception {
+        //given
+        Category category = Category.builder()
+                .name("test")
+                .build();
+        categoryRepository.save(category);
+        User user = User.builder()
+                .username("user")
+                .firstname("Test")
+                .lastname("Testowy")
+                .email("test@test.pl")
+                .role("ROLE_TEST")
+                .password("user")
+                .locked(false)
+                .build();
+        userRepository.save(user);
+        Book first = bookRepository.save(Book.builder()
+                .title("First")
+                .author("Testowy")
+                .category(category)
+                .state(State.READY)
+                .build());
+        Book blocked = bookRepository.save(Book.builder()
+                .title("Blocked")
+                .author("Testowy")
+                .category(category)
+                .isBlocked(true)
+                .state(State.READY)
+                .build());
+        Book second = bookRepository.save(Book.builder()
+                .title("Second")
+                .author("Testowy")
+                .category(category)
+                .state(State.READY)
+                .build());
+        CheckoutBooksCommand command = CheckoutBooksCommand.builder()
+                .bookIds(List.of(second.getId(), blocked.getId(), first.getId()))
+                .to(LocalDate.now().plusDays(10))
+                .build();
+
+        //when //then
+        mockMvc.perform(post("/api/v1/books/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andDo(print())
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].bookId", equalTo(second.getId())))
+                .andExpect(jsonPath("$[0].borrowed", equalTo(true)))
+                .andExpect(jsonPath("$[0].book.username", equalTo(user.getUsername())))
+                .andExpect(jsonPath("$[1].borrowed", equalTo(false)))
+                .andExpect(jsonPath("$[1].message", equalTo("Book with id: " + blocked.getId() + " cannot be borrowed")))
+                .andExpect(jsonPath("$[2].borrowed", equalTo(true)));
+
+        assertEquals(State.BORROWED, bookRepository.findById(first.getId()).orElseThrow().getState());
+        assertEquals(State.BORROWED, bookRepository.findById(second.getId()).orElseThrow().getState());
+        assertEquals(State.READY, bookRepository.findById(blocked.getId()).orElseThrow().getState());
+
+        outboxRelay.drain();
+        verify(messageSender, times(1)).sendInfo(any(AuditMessage.class));
+        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), any(AuditMessage.class));
+    }
+
     @Test
     @WithMockUser(username = "Admin", password = "Admin", roles = "EMPLOYEE")
     void testBorrowBook_RoleEmployee_ShouldReturnForbidden() throws Exception {
@@ -330,10 +414,11 @@ class BookControllerTest {
                 .andDo(print())
                 .andExpect(status().isForbidden());
 
-        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), anyString());
-        verify(messageSender, times(0)).sendInfo(anyString());
+        outboxRelay.drain();
+        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(AuditMessage.class));
+        verify(messageSender, times(0)).sendInfo(any(AuditMessage.class));
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
     }
 
@@ -350,10 +435,11 @@ class BookControllerTest {
                 .andExpect(jsonPath("$.timestamp", notNullValue()))
                 .andExpect(jsonPath("$.message", equalTo("Date 'to' cannot be before today's date")));
 
-        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), anyString());
-        verify(messageSender, times(0)).sendInfo(anyString());
+        outboxRelay.drain();
+        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(AuditMessage.class));
+        verify(messageSender, times(0)).sendInfo(any(AuditMessage.class));
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
     }
 
@@ -369,10 +455,11 @@ class BookControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.timestamp", notNullValue()))
                 .andExpect(jsonPath("$.message", equalTo("Not found book with id: 100")));
-        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), anyString());
-        verify(messageSender, times(0)).sendInfo(anyString());
+        outboxRelay.drain();
+        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(AuditMessage.class));
+        verify(messageSender, times(0)).sendInfo(any(AuditMessage.class));
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
     }
 
@@ -403,10 +490,11 @@ class BookControllerTest {
                 .andExpect(jsonPath("$.message", equalTo("Book with id: "
                         + book.getId() + " cannot be borrowed")));
 
-        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), anyString());
-        verify(messageSender, times(0)).sendInfo(anyString());
+        outboxRelay.drain();
+        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(AuditMessage.class));
+        verify(messageSender, times(0)).sendInfo(any(AuditMessage.class));
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
     }
 
@@ -449,10 +537,11 @@ class BookControllerTest {
                 .andExpect(jsonPath("$.message", equalTo("Book is borrowed to: "
                         + book.getToDate())));
 
-        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), anyString());
-        verify(messageSender, times(0)).sendInfo(anyString());
+        outboxRelay.drain();
+        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(AuditMessage.class));
+        verify(messageSender, times(0)).sendInfo(any(AuditMessage.class));
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
     }
 
@@ -504,10 +593,11 @@ class BookControllerTest {
         assertNull(returnedBook.getFromDate());
         assertEquals(State.READY, returnedBook.getState());
 
-        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), anyString());
-        verify(messageSender, times(1)).sendInfo(anyString());
+        outboxRelay.drain();
+        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), any(AuditMessage.class));
+        verify(messageSender, times(1)).sendInfo(any(AuditMessage.class));
         verify(rabbitTemplate, times(1)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
     }
 
@@ -558,10 +648,11 @@ class BookControllerTest {
         assertNull(returnedBook.getFromDate());
         assertEquals(State.READY, returnedBook.getState());
 
-        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), anyString());
-        verify(messageSender, times(1)).sendInfo(anyString());
+        outboxRelay.drain();
+        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), any(AuditMessage.class));
+        verify(messageSender, times(1)).sendInfo(any(AuditMessage.class));
         verify(rabbitTemplate, times(1)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
     }
 
@@ -577,10 +668,11 @@ class BookControllerTest {
                 .andExpect(jsonPath("$.timestamp", notNullValue()))
                 .andExpect(jsonPath("$.message", equalTo("Not found book with id: 1")));
 
-        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), anyString());
-        verify(messageSender, times(0)).sendInfo(anyString());
+        outboxRelay.drain();
+        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(AuditMessage.class));
+        verify(messageSender, times(0)).sendInfo(any(AuditMessage.class));
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
     }
 
@@ -632,10 +724,11 @@ class BookControllerTest {
                 .andExpect(jsonPath("$.message", equalTo("No access to book with id: "
                         + book.getId())));
 
-        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), anyString());
-        verify(messageSender, times(0)).sendInfo(anyString());
+        outboxRelay.drain();
+        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(AuditMessage.class));
+        verify(messageSender, times(0)).sendInfo(any(AuditMessage.class));
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
     }
 
@@ -666,13 +759,192 @@ class BookControllerTest {
                 .andExpect(jsonPath("$.message", equalTo("Book with id: " +
                         book.getId() + " is not borrowed")));
 
-        verify(messageSender, times(0)).sendInfo(anyString());
-        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), anyString());
+        outboxRelay.drain();
+        verify(messageSender, times(0)).sendInfo(any(AuditMessage.class));
+        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(AuditMessage.class));
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
     }
 
+    @Test
+    @WithMockUser(username = "user", password = "user", roles = "CUSTOMER")
+    void testReturnBooks_RoleCustomer_ResultsInPerItemResultsAndOneMessage() throws Exception {
+        //given
+        Category category = categoryRepository.save(Category.builder()
+                .name("test")
+                .build());
+        User user = userRepository.save(User.builder()
+                .username("user")
+                .firstname("Test")
+                .lastname("Testowy")
+                .email("test@test.pl")
+                .role("ROLE_TEST")
+                .password("user")
+                .locked(false)
+                .build());
+        User other = userRepository.save(User.builder()
+                .username("other")
+                .firstname("Other")
+                .lastname("Testowy")
+                .email("other@test.pl")
+                .role("ROLE_TEST")
+                .password("other")
+                .locked(false)
+                .build());
+        Book first = bookRepository.save(borrowedBook("First", category, user));
+        Book foreign = bookRepository.save(borrowedBook("Foreign", category, other));
+        Book second = bookRepository.save(borrowedBook("Second", category, user));
+        Book ready = bookRepository.save(Book.builder()
+                .title("Ready")
+                .author("Testowy")
+                .category(category)
+                .state(State.READY)
+                .build());
+        ReturnBooksCommand command = ReturnBooksCommand.builder()
+                .bookIds(List.of(first.getId(), foreign.getId(), ready.getId(), second.getId()))
+                .build();
+
+        //when //then
+        mockMvc.perform(post("/api/v1/books/returns")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andDo(print())
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$", hasSize(4)))
+                .andExpect(jsonPath("$[0].returned", equalTo(true)))
+                .andExpect(jsonPath("$[1].returned", equalTo(false)))
+                .andExpect(jsonPath("$[1].message", equalTo("No access to book with id: " + foreign.getId())))
+                .andExpect(jsonPath("$[2].returned", equalTo(false)))
+                .andExpect(jsonPath("$[2].message", equalTo("Book with id: " + ready.getId() + " is not borrowed")))
+                .andExpect(jsonPath("$[3].returned", equalTo(true)));
+
+        Book returnedBook = bookRepository.findById(first.getId()).orElseThrow();
+        assertEquals(State.READY, returnedBook.getState());
+        assertNull(returnedBook.getUser());
+        assertNull(returnedBook.getToDate());
+        assertEquals(State.READY, bookRepository.findById(second.getId()).orElseThrow().getState());
+        assertEquals(State.BORROWED, bookRepository.findById(foreign.getId()).orElseThrow().getState());
+
+        outboxRelay.drain();
+        ArgumentCaptor<AuditMessage> captor = ArgumentCaptor.forClass(AuditMessage.class);
+        verify(messageSender, times(1)).sendInfo(captor.capture());
+        assertEquals("returned", captor.getValue().getAction());
+        assertEquals(List.of(first.getId(), second.getId()), captor.getValue().getEntityIds());
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "user", roles = "CUSTOMER")
+    void testReturnBooks_RoleCustomer_Validation() throws Exception {
+        //given
+        ReturnBooksCommand command = ReturnBooksCommand.builder()
+                .bookIds(List.of())
+                .build();
+
+        //when //then
+        mockMvc.perform(post("/api/v1/books/returns")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "Admin", password = "Admin", roles = "EMPLOYEE")
+    void testImportBooks_RoleEmployee_Ndjson_ResultsInBooksInsertedAndRowsRejected() throws Exception {
+        //given
+        Category category = categoryRepository.save(Category.builder()
+                .name("test")
+                .build());
+        String body = String.join("\n",
+                objectMapper.writeValueAsString(CreateBookCommand.builder()
+                        .title("First").author("Testowy").categoryId(category.getId()).build()),
+                "{not json",
+                objectMapper.writeValueAsString(CreateBookCommand.builder()
+                        .title("second").author("Testowy").categoryId(category.getId()).build()),
+                "",
+                objectMapper.writeValueAsString(CreateBookCommand.builder()
+                        .title("Third").author("Testowy").categoryId(category.getId() + 100).build()),
+                objectMapper.writeValueAsString(CreateBookCommand.builder()
+                        .title("Fourth").author("Testowy").categoryId(category.getId()).build()));
+
+        //when //then
+        mockMvc.perform(post("/api/v1/books/import")
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.imported", equalTo(2)))
+                .andExpect(jsonPath("$.rejected", equalTo(3)))
+                .andExpect(jsonPath("$.errors", hasSize(3)))
+                .andExpect(jsonPath("$.errors[0]", equalTo("line 2: malformed JSON")))
+                .andExpect(jsonPath("$.errors[1]", equalTo("line 3: title has to match the pattern")))
+                .andExpect(jsonPath("$.errors[2]",
+                        equalTo("line 5: Not found category with id: " + (category.getId() + 100))));
+
+        List<Book> books = bookRepository.findAll().stream()
+                .filter(book -> book.getCategory().getId() == category.getId())
+                .toList();
+        assertEquals(2, books.size());
+        assertTrue(books.stream().allMatch(book -> book.getState() == State.READY && !book.isBlocked()));
+
+        outboxRelay.drain();
+        ArgumentCaptor<AuditMessage> captor = ArgumentCaptor.forClass(AuditMessage.class);
+        verify(messageSender, times(1)).sendInfo(captor.capture());
+        assertEquals("created", captor.getValue().getAction());
+        assertEquals(2, captor.getValue().getEntityIds().size());
+    }
+
+    @Test
+    @WithMockUser(username = "Admin", password = "Admin", roles = "EMPLOYEE")
+    void testImportBooks_RoleEmployee_Csv_ResultsInBooksInserted() throws Exception {
+        //given
+        Category category = categoryRepository.save(Category.builder()
+                .name("test")
+                .build());
+        String body = "author,title,categoryId\n"
+                + "Testowy,First," + category.getId() + "\n"
+                + "Testowy,Second,abc\n"
+                + "Testowy,Third," + category.getId() + "\n";
+
+        //when //then
+        mockMvc.perform(post("/api/v1/books/import")
+                        .contentType("text/csv")
+                        .content(body))
+                .andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.imported", equalTo(2)))
+                .andExpect(jsonPath("$.rejected", equalTo(1)))
+                .andExpect(jsonPath("$.errors[0]", equalTo("line 3: categoryId has to be a number")));
+
+        assertEquals(2, bookRepository.findAll().stream()
+                .filter(book -> book.getCategory().getId() == category.getId())
+                .count());
+    }
+
+    @Test
+    @WithMockUser(username = "Admin", password = "Admin", roles = "EMPLOYEE")
+    void testImportBooks_RoleEmployee_CsvWithoutHeader_ShouldReturnBadRequest() throws Exception {
+        //when //then
+        mockMvc.perform(post("/api/v1/books/import")
+                        .contentType("text/csv")
+                        .content("First,Testowy,1\n"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", equalTo("CSV header has to contain title,author,categoryId")));
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "user", roles = "CUSTOMER")
+    void testImportBooks_RoleCustomer_ShouldReturnForbidden() throws Exception {
+        //when //then
+        mockMvc.perform(post("/api/v1/books/import")
+                        .contentType("text/csv")
+                        .content("title,author,categoryId\n"))
+                .andDo(print())
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     void testGetAll_AllUsers_CorrectValues() throws Exception {
         //given
@@ -727,9 +999,25 @@ class BookControllerTest {
                 .andExpect(jsonPath("$.size", equalTo(2)))
                 .andExpect(jsonPath("$.totalPages", equalTo(2)));
 
-        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class),any(Long.class),
+        ArgumentCaptor<PerformanceInfo> performanceInfoCaptor = ArgumentCaptor.forClass(PerformanceInfo.class);
+        outboxRelay.drain();
+        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), performanceInfoCaptor.capture());
+        assertTrue(performanceInfoCaptor.getValue().getSqlStatementCount() > 0);
+        assertTrue(performanceInfoCaptor.getValue().getSqlTimeNanos() > 0);
+        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
     }
 
-}
\ No newline at end of file
+    private static Book borrowedBook(String title, Category category, User user) {
+        return Book.builder()
+                .title(title)
+                .author("Testowy")
+                .category(category)
+                .user(user)
+                .state(State.BORROWED)
+                .fromDate(LocalDate.now())
+                .toDate(LocalDate.now().plusDays(10))
+                .build();
+    }
+
+}
@@ -12,10 +12,14 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
+import pl.zajonz.librarytest.event.OutboxRelay;
+import pl.zajonz.librarytest.model.AuditMessage;
 import pl.zajonz.librarytest.model.Category;
+import pl.zajonz.librarytest.model.ExecutionMeasurement;
 import pl.zajonz.librarytest.model.PerformanceInfo;
 import pl.zajonz.librarytest.model.User;
 import pl.zajonz.librarytest.repository.CategoryRepository;
+import pl.zajonz.librarytest.repository.OutboxEventRepository;
 import pl.zajonz.librarytest.repository.UserRepository;
 import pl.zajonz.librarytest.service.MessageSender;
 
@@ -51,9 +55,14 @@ class CategoryControllerTest {
     private MessageSender messageSender;
     @MockBean
     private RabbitTemplate rabbitTemplate;
+    @Autowired
+    private OutboxRelay outboxRelay;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
 
     @BeforeEach
     public void clearDatabase() {
+        outboxEventRepository.deleteAll();
         categoryRepository.deleteAll();
     }
 
@@ -80,8 +89,9 @@ class CategoryControllerTest {
                 .andExpect(jsonPath("$[1].id", equalTo(category2.getId())))
                 .andExpect(jsonPath("$[1].name", equalTo(category2.getName())));
 
+        outboxRelay.drain();
         verify(rabbitTemplate, times(1)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class), any(Long.class),
+        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class), any(ExecutionMeasurement.class),
                 anyString(), any(LocalDateTime.class));
     }
 
@@ -114,8 +124,9 @@ class CategoryControllerTest {
         assert updatedUser != null;
         assertTrue(updatedUser.getSubscribedCategories().contains(category));
 
+        outboxRelay.drain();
         verify(rabbitTemplate, times(1)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class), any(Long.class),
+        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class), any(ExecutionMeasurement.class),
                 anyString(), any(LocalDateTime.class));
     }
 
@@ -150,10 +161,11 @@ class CategoryControllerTest {
         assert updatedUser != null;
         assertFalse(updatedUser.getSubscribedCategories().contains(category));
 
-        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), anyString());
-        verify(messageSender, times(0)).sendInfo(anyString());
+        outboxRelay.drain();
+        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(AuditMessage.class));
+        verify(messageSender, times(0)).sendInfo(any(AuditMessage.class));
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class), any(Long.class),
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class), any(ExecutionMeasurement.class),
                 anyString(), any(LocalDateTime.class));
     }
 
@@ -174,9 +186,10 @@ class CategoryControllerTest {
                 .andExpect(jsonPath("$.timestamp", notNullValue()))
                 .andExpect(jsonPath("$.message", equalTo("Not found user with username: user")));
 
-        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), anyString());
-        verify(messageSender, times(0)).sendInfo(anyString());
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class), any(Long.class),
+        outboxRelay.drain();
+        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(AuditMessage.class));
+        verify(messageSender, times(0)).sendInfo(any(AuditMessage.class));
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class), any(ExecutionMeasurement.class),
                 anyString(), any(LocalDateTime.class));
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(PerformanceInfo.class));
     }
@@ -202,10 +215,11 @@ class CategoryControllerTest {
                 .andDo(print())
                 .andExpect(status().isForbidden());
 
-        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), anyString());
-        verify(messageSender, times(0)).sendInfo(anyString());
+        outboxRelay.drain();
+        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(AuditMessage.class));
+        verify(messageSender, times(0)).sendInfo(any(AuditMessage.class));
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class), any(Long.class),
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class), any(ExecutionMeasurement.class),
                 anyString(), any(LocalDateTime.class));
     }
 }
\ No newline at end of file
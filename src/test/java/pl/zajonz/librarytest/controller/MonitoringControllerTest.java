@@ -0,0 +1,84 @@
+package pl.zajonz.librarytest.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.zajonz.librarytest.monitoring.MethodLatencyRegistry;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MonitoringControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MethodLatencyRegistry methodLatencyRegistry;
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @BeforeEach
+    public void clearHistograms() {
+        methodLatencyRegistry.reset();
+    }
+
+    @Test
+    @WithMockUser(username = "Admin", password = "Admin", roles = "EMPLOYEE")
+    void testGetLatency_RoleEmployee_CorrectValues() throws Exception {
+        //given
+        mockMvc.perform(get("/api/v1/categories"))
+                .andExpect(status().isOk());
+
+        //when //then
+        mockMvc.perform(get("/api/v1/monitoring/latency"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].classMethodName", equalTo("CategoryController.getCategories()")))
+                .andExpect(jsonPath("$[0].count", equalTo(1)))
+                .andExpect(jsonPath("$[0].p99Ms", greaterThan(0.0)))
+                .andExpect(jsonPath("$[0].windowStart", notNullValue()));
+    }
+
+    @Test
+    @WithMockUser(username = "Admin", password = "Admin", roles = "EMPLOYEE")
+    void testResetLatency_RoleEmployee_ClearsHistograms() throws Exception {
+        //given
+        methodLatencyRegistry.record("Test.test()", 1_000_000L);
+
+        //when
+        mockMvc.perform(delete("/api/v1/monitoring/latency"))
+                .andDo(print())
+                .andExpect(status().isNoContent());
+
+        //then
+        mockMvc.perform(get("/api/v1/monitoring/latency"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "user", roles = "CUSTOMER")
+    void testGetLatency_RoleCustomer_ShouldReturnForbidden() throws Exception {
+        //given
+
+        //when //then
+        mockMvc.perform(get("/api/v1/monitoring/latency"))
+                .andDo(print())
+                .andExpect(status().isForbidden());
+    }
+}
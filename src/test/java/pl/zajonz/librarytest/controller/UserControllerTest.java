@@ -15,13 +15,17 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import pl.zajonz.librarytest.common.State;
+import pl.zajonz.librarytest.event.OutboxRelay;
+import pl.zajonz.librarytest.model.AuditMessage;
 import pl.zajonz.librarytest.model.Book;
 import pl.zajonz.librarytest.model.Category;
+import pl.zajonz.librarytest.model.ExecutionMeasurement;
 import pl.zajonz.librarytest.model.PerformanceInfo;
 import pl.zajonz.librarytest.model.User;
 import pl.zajonz.librarytest.model.command.CreateUserCommand;
 import pl.zajonz.librarytest.repository.BookRepository;
 import pl.zajonz.librarytest.repository.CategoryRepository;
+import pl.zajonz.librarytest.repository.OutboxEventRepository;
 import pl.zajonz.librarytest.repository.UserRepository;
 import pl.zajonz.librarytest.service.MessageSender;
 
@@ -58,11 +62,16 @@ class UserControllerTest {
     private PasswordEncoder passwordEncoder;
     @MockBean
     private RabbitTemplate rabbitTemplate;
+    @Autowired
+    private OutboxRelay outboxRelay;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
     @SpyBean
     private MessageSender messageSender;
 
     @BeforeEach
     public void clearDatabase() {
+        outboxEventRepository.deleteAll();
         bookRepository.deleteAll();
         userRepository.deleteAll();
     }
@@ -98,10 +107,11 @@ class UserControllerTest {
         assertEquals(command.getLastname(), user.getLastname());
         assertEquals(command.getPassword(), user.getPassword());
 
-        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), anyString());
-        verify(messageSender, times(1)).sendInfo(anyString());
+        outboxRelay.drain();
+        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), any(AuditMessage.class));
+        verify(messageSender, times(1)).sendInfo(any(AuditMessage.class));
         verify(rabbitTemplate, times(1)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
     }
 
@@ -137,10 +147,11 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.timestamp", notNullValue()))
                 .andExpect(jsonPath("$.message", equalTo("User with email: " + command.getEmail() + " already exists")));
 
-        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), anyString());
-        verify(messageSender, times(0)).sendInfo(anyString());
+        outboxRelay.drain();
+        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(AuditMessage.class));
+        verify(messageSender, times(0)).sendInfo(any(AuditMessage.class));
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
     }
 
@@ -176,10 +187,11 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.timestamp", notNullValue()))
                 .andExpect(jsonPath("$.message", equalTo("User with username: Test already exists")));
 
-        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), anyString());
-        verify(messageSender, times(0)).sendInfo(anyString());
+        outboxRelay.drain();
+        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(AuditMessage.class));
+        verify(messageSender, times(0)).sendInfo(any(AuditMessage.class));
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
     }
 
@@ -214,10 +226,11 @@ class UserControllerTest {
                                 "role has to match the pattern",
                                 "email cannot be blank")));
 
-        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), anyString());
-        verify(messageSender, times(0)).sendInfo(anyString());
+        outboxRelay.drain();
+        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(AuditMessage.class));
+        verify(messageSender, times(0)).sendInfo(any(AuditMessage.class));
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
     }
 
@@ -256,8 +269,9 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.size", equalTo(1)))
                 .andExpect(jsonPath("$.totalPages", equalTo(2)));
 
+        outboxRelay.drain();
         verify(rabbitTemplate, times(1)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
     }
 
@@ -271,8 +285,9 @@ class UserControllerTest {
                 .andDo(print())
                 .andExpect(status().isForbidden());
 
+        outboxRelay.drain();
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
     }
 
@@ -312,8 +327,9 @@ class UserControllerTest {
                 .andExpect(jsonPath("$[0].title", equalTo(book.getTitle())))
                 .andExpect(jsonPath("$[0].author", equalTo(book.getAuthor())));
 
+        outboxRelay.drain();
         verify(rabbitTemplate, times(1)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
     }
 
@@ -353,8 +369,9 @@ class UserControllerTest {
                 .andExpect(jsonPath("$[0].title", equalTo(book.getTitle())))
                 .andExpect(jsonPath("$[0].author", equalTo(book.getAuthor())));
 
+        outboxRelay.drain();
         verify(rabbitTemplate, times(1)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(1)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
     }
 
@@ -393,8 +410,9 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.timestamp", notNullValue()))
                 .andExpect(jsonPath("$.message", equalTo("No access to book with id: " + user.getId())));
 
+        outboxRelay.drain();
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
     }
 
@@ -410,8 +428,9 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.timestamp", notNullValue()))
                 .andExpect(jsonPath("$.message", equalTo("Not found user with id: 100")));
 
+        outboxRelay.drain();
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
     }
 
@@ -427,8 +446,9 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.timestamp", notNullValue()))
                 .andExpect(jsonPath("$.message", equalTo("Not found user with id: 100")));
 
+        outboxRelay.drain();
         verify(rabbitTemplate, times(0)).convertAndSend(anyString(), any(PerformanceInfo.class));
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(Long.class),
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class),any(ExecutionMeasurement.class),
                 anyString(),any(LocalDateTime.class));
     }
 }
\ No newline at end of file
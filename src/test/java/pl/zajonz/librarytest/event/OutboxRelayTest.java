@@ -0,0 +1,270 @@
+package pl.zajonz.librarytest.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.zajonz.librarytest.event.model.InfoEventKind;
+import pl.zajonz.librarytest.model.AuditMessage;
+import pl.zajonz.librarytest.model.Book;
+import pl.zajonz.librarytest.model.BookSnapshot;
+import pl.zajonz.librarytest.model.Category;
+import pl.zajonz.librarytest.model.OutboxEvent;
+import pl.zajonz.librarytest.repository.BookRepository;
+import pl.zajonz.librarytest.repository.OutboxEventRepository;
+import pl.zajonz.librarytest.service.MessageSender;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    private static final Instant CREATED_AT = Instant.parse("2023-05-01T10:00:00Z");
+
+    @InjectMocks
+    private OutboxRelay outboxRelay;
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private MessageSender messageSender;
+    @Spy
+    private InfoEventCoalescer infoEventCoalescer = new InfoEventCoalescer();
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 10);
+    }
+
+    @Test
+    void testDrain_ResultsInEventsBeingSentAndDeleted() {
+        //given
+        BookSnapshot book = new BookSnapshot(5, "Test", "Testowy", 2, "Fantasy");
+        OutboxEvent emailEvent = emailEvent(2L, 5);
+        emailEvent.setPayload("{\"id\":5,\"title\":\"Test\",\"author\":\"Testowy\",\"categoryId\":2,"
+                + "\"categoryName\":\"Fantasy\"}");
+        when(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(infoEvent(1L, 9), emailEvent));
+
+        //when
+        outboxRelay.drain();
+
+        //then
+        verify(messageSender, times(1)).sendInfo(audit("created", List.of(9)));
+        verify(messageSender, times(1)).sendEmailInfo(book);
+        verify(bookRepository, never()).findById(any());
+        verify(outboxEventRepository, times(1)).deleteAllByIdInBatch(List.of(1L, 2L));
+        assertEquals(2, outboxRelay.getRelayedCount());
+    }
+
+    @Test
+    void testDrain_EmailEventWithoutSnapshot_ResultsInBookBeingLoaded() {
+        //given
+        Book book = Book.builder().id(5).title("Test").author("Testowy")
+                .category(Category.builder().id(2).name("Fantasy").build())
+                .build();
+        when(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(emailEvent(2L, 5)));
+        when(bookRepository.findById(5)).thenReturn(Optional.of(book));
+
+        //when
+        outboxRelay.drain();
+
+        //then
+        verify(messageSender, times(1)).sendEmailInfo(new BookSnapshot(5, "Test", "Testowy", 2, "Fantasy"));
+        verify(outboxEventRepository, times(1)).deleteAllByIdInBatch(List.of(2L));
+    }
+
+    @Test
+    void testDrain_SendFails_ResultsInOnlySentEventsBeingDeleted() {
+        //given
+        when(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(infoEvent(1L, 1), infoEvent(2L, 2)));
+        doNothing().when(messageSender).sendInfo(audit("created", List.of(1)));
+        doThrow(new AmqpException("broker down")).when(messageSender).sendInfo(audit("created", List.of(2)));
+
+        //when
+        outboxRelay.drain();
+
+        //then
+        verify(outboxEventRepository, times(1)).deleteAllByIdInBatch(List.of(1L));
+        assertEquals(1, outboxRelay.getRelayedCount());
+    }
+
+    @Test
+    void testDrain_CoalescingEnabled_ResultsInSameKindEventsBeingMerged() {
+        //given
+        ReflectionTestUtils.setField(infoEventCoalescer, "enabled", true);
+        when(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(
+                        infoEvent(1L, InfoEventKind.BOOK_BLOCKED, 7, CREATED_AT),
+                        infoEvent(2L, InfoEventKind.BOOK_CREATED, 9, CREATED_AT),
+                        infoEvent(3L, InfoEventKind.BOOK_BLOCKED, 8, CREATED_AT)));
+
+        //when
+        outboxRelay.drain();
+
+        //then
+        verify(messageSender, times(1)).sendInfo(audit("blocked", List.of(7, 8)));
+        verify(messageSender, times(1)).sendInfo(audit("created", List.of(9)));
+        verify(outboxEventRepository, times(1)).deleteAllByIdInBatch(List.of(1L, 3L, 2L));
+        assertEquals(3, outboxRelay.getRelayedCount());
+        assertEquals(2, outboxRelay.getCoalescedCount());
+    }
+
+    @Test
+    void testDrain_BulkEvent_ResultsInOneMessageWithAllIds() {
+        //given
+        OutboxEvent checkout = infoEvent(1L, InfoEventKind.BOOK_BORROWED, 7, CREATED_AT);
+        checkout.setEntityIds(List.of(7, 8));
+        OutboxEvent other = infoEvent(2L, InfoEventKind.BOOK_BORROWED, 9, CREATED_AT);
+        when(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(checkout, other));
+
+        //when
+        outboxRelay.drain();
+
+        //then
+        verify(messageSender, times(1)).sendInfo(audit("borrowed", List.of(7, 8)));
+        verify(messageSender, times(1)).sendInfo(audit("borrowed", List.of(9)));
+        assertEquals(0, outboxRelay.getCoalescedCount());
+    }
+
+    @Test
+    void testDrain_EventWithSubjectIdOnly_ResultsInMessageWithSubjectId() {
+        //given
+        OutboxEvent event = infoEvent(1L, InfoEventKind.BOOK_CREATED, 7, CREATED_AT);
+        event.setEntityIds(null);
+        event.setSubjectId(7);
+        when(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class))).thenReturn(List.of(event));
+
+        //when
+        outboxRelay.drain();
+
+        //then
+        verify(messageSender, times(1)).sendInfo(audit("created", List.of(7)));
+    }
+
+    @Test
+    void testDrain_CoalescingEnabledAndOldestEventRecent_ResultsInBatchBeingHeld() {
+        //given
+        ReflectionTestUtils.setField(infoEventCoalescer, "enabled", true);
+        ReflectionTestUtils.setField(infoEventCoalescer, "maxDelayMs", 60_000L);
+        when(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(infoEvent(1L, InfoEventKind.BOOK_BLOCKED, 7, Instant.now())));
+
+        //when
+        outboxRelay.drain();
+
+        //then
+        verify(messageSender, never()).sendInfo(any());
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void testRun_RepositoryFails_ResultsInFailureBeingCounted() {
+        //given
+        when(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .thenThrow(new IllegalStateException("database down"));
+
+        //when
+        outboxRelay.run();
+
+        //then
+        assertEquals(1, outboxRelay.getFailedRunCount());
+    }
+
+    @Test
+    void testRequestDrain_ResultsInImmediateDrain() throws InterruptedException {
+        //given
+        ReflectionTestUtils.setField(outboxRelay, "enabled", true);
+        ReflectionTestUtils.setField(outboxRelay, "triggerAfterCommit", true);
+        ReflectionTestUtils.setField(outboxRelay, "relayIntervalMs", 60_000L);
+        when(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(infoEvent(1L, 9)), List.of());
+        outboxRelay.start();
+
+        //when
+        outboxRelay.requestDrain();
+
+        //then
+        verify(messageSender, timeout(1000).times(1)).sendInfo(audit("created", List.of(9)));
+        outboxRelay.stop();
+        assertEquals(1, outboxRelay.getTriggeredCount());
+    }
+
+    @Test
+    void testDrain_LegacyInfoEvent_ResultsInPayloadBeingSentAsIs() {
+        //given
+        OutboxEvent legacy = OutboxEvent.builder()
+                .id(1L)
+                .type(OutboxEvent.OutboxEventType.INFO)
+                .payload("Book{id=9, title='Test'} created")
+                .createdAt(CREATED_AT)
+                .build();
+        when(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(legacy, infoEvent(2L, 9)));
+
+        //when
+        outboxRelay.drain();
+
+        //then
+        verify(messageSender, times(1)).sendLegacyInfo("Book{id=9, title='Test'} created");
+        verify(messageSender, times(1)).sendInfo(audit("created", List.of(9)));
+        verify(outboxEventRepository, times(1)).deleteAllByIdInBatch(List.of(1L, 2L));
+    }
+
+    private static OutboxEvent infoEvent(long id, InfoEventKind kind, int entityId, Instant createdAt) {
+        return OutboxEvent.builder()
+                .id(id)
+                .type(OutboxEvent.OutboxEventType.INFO)
+                .infoKind(kind)
+                .entityIds(List.of(entityId))
+                .createdAt(createdAt)
+                .build();
+    }
+
+    private static OutboxEvent infoEvent(long id, int entityId) {
+        return infoEvent(id, InfoEventKind.BOOK_CREATED, entityId, CREATED_AT);
+    }
+
+    private static AuditMessage audit(String action, List<Integer> entityIds) {
+        return AuditMessage.builder()
+                .entityType("book")
+                .action(action)
+                .entityIds(entityIds)
+                .occurredAt(CREATED_AT)
+                .build();
+    }
+
+    private static OutboxEvent emailEvent(long id, int bookId) {
+        return OutboxEvent.builder()
+                .id(id)
+                .type(OutboxEvent.OutboxEventType.EMAIL_INFO)
+                .bookId(bookId)
+                .createdAt(Instant.now())
+                .build();
+    }
+}
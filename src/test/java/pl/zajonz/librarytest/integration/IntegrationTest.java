@@ -13,8 +13,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.testcontainers.containers.output.WaitingConsumer;
 import pl.zajonz.librarytest.common.State;
+import pl.zajonz.librarytest.model.AuditMessage;
 import pl.zajonz.librarytest.model.Book;
+import pl.zajonz.librarytest.model.BookSnapshot;
 import pl.zajonz.librarytest.model.Category;
+import pl.zajonz.librarytest.model.ExecutionMeasurement;
 import pl.zajonz.librarytest.model.InfoMessage;
 import pl.zajonz.librarytest.model.User;
 import pl.zajonz.librarytest.model.command.CreateBookCommand;
@@ -26,6 +29,8 @@ import pl.zajonz.librarytest.service.MessageSender;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -35,6 +40,8 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.testcontainers.containers.output.OutputFrame.OutputType.STDOUT;
@@ -54,7 +61,7 @@ public class IntegrationTest extends AbstractIntegrationTest {
     @SpyBean
     private MessageSender messageSender;
     @Captor
-    private ArgumentCaptor<Long> longArgumentCaptor;
+    private ArgumentCaptor<ExecutionMeasurement> measurementArgumentCaptor;
     @Captor
     private ArgumentCaptor<LocalDateTime> localDateTimeArgumentCaptor;
 
@@ -128,10 +135,10 @@ public class IntegrationTest extends AbstractIntegrationTest {
         infoMessage.setUser_firstName(user.getFirstname());
         infoMessage.setUser_lastName(user.getLastname());
 
-        verify(messageSender).sendPerformanceInfo(any(User.class), longArgumentCaptor.capture(),
+        verify(messageSender).sendPerformanceInfo(any(User.class), measurementArgumentCaptor.capture(),
                 anyString(), localDateTimeArgumentCaptor.capture());
 
-        long executionTime = longArgumentCaptor.getValue();
+        long executionTime = measurementArgumentCaptor.getValue().getExecutionTime();
         LocalDateTime methodStart = localDateTimeArgumentCaptor.getValue();
 
         String performanceInfo = "User with id: " + user.getId() + ", email: "
@@ -148,7 +155,7 @@ public class IntegrationTest extends AbstractIntegrationTest {
 
         String logs = loggingContainer.getLogs(STDOUT);
         assertTrue(logs.contains(performanceInfo));
-        assertTrue(logs.contains(book + " has been created"));
+        verifyAuditMessage("book", "created", book.getId(), category.getId());
     }
 
     @Test
@@ -188,9 +195,9 @@ public class IntegrationTest extends AbstractIntegrationTest {
         Book book = bookRepository.findBookByAuthor(command.getAuthor());
         assertNull(book);
 
-        verify(messageSender, times(0)).sendEmailInfo(any(Book.class));
-        verify(messageSender, times(0)).sendInfo(anyString());
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class), any(Long.class),
+        verify(messageSender, times(0)).sendEmailInfo(any(BookSnapshot.class));
+        verify(messageSender, times(0)).sendInfo(any(AuditMessage.class));
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class), any(ExecutionMeasurement.class),
                 anyString(), any(LocalDateTime.class));
     }
 
@@ -237,7 +244,7 @@ public class IntegrationTest extends AbstractIntegrationTest {
                 .body("state", equalTo(State.BORROWED.toString()))
                 .body("toDate", equalTo(borrowTo.toString()));
 
-        verify(messageSender).sendPerformanceInfo(any(User.class), longArgumentCaptor.capture(),
+        verify(messageSender).sendPerformanceInfo(any(User.class), measurementArgumentCaptor.capture(),
                 anyString(), localDateTimeArgumentCaptor.capture());
 
         Book borrowedBook = bookRepository.findById(book.getId()).orElse(null);
@@ -245,7 +252,7 @@ public class IntegrationTest extends AbstractIntegrationTest {
         assertEquals(borrowTo, borrowedBook.getToDate());
         assertNotNull(borrowedBook.getUser());
 
-        long executionTime = longArgumentCaptor.getValue();
+        long executionTime = measurementArgumentCaptor.getValue().getExecutionTime();
         LocalDateTime methodStart = localDateTimeArgumentCaptor.getValue();
 
         String performanceInfo = "User with id: " + user.getId() + ", email: "
@@ -254,7 +261,7 @@ public class IntegrationTest extends AbstractIntegrationTest {
 
         String logs = loggingContainer.getLogs(STDOUT);
         assertTrue(logs.contains(performanceInfo));
-        assertTrue(logs.contains(borrowedBook + " has been borrowed"));
+        verifyAuditMessage("book", "borrowed", borrowedBook.getId(), user.getId());
     }
 
     @Test
@@ -297,14 +304,14 @@ public class IntegrationTest extends AbstractIntegrationTest {
                 .body("title", equalTo(book.getTitle()))
                 .body("state", equalTo(State.READY.toString()));
 
-        verify(messageSender).sendPerformanceInfo(any(User.class), longArgumentCaptor.capture(),
+        verify(messageSender).sendPerformanceInfo(any(User.class), measurementArgumentCaptor.capture(),
                 anyString(), localDateTimeArgumentCaptor.capture());
 
         Book blockedBook = bookRepository.findById(book.getId()).orElse(null);
         assertNotNull(blockedBook);
         assertTrue(blockedBook.isBlocked());
 
-        long executionTime = longArgumentCaptor.getValue();
+        long executionTime = measurementArgumentCaptor.getValue().getExecutionTime();
         LocalDateTime methodStart = localDateTimeArgumentCaptor.getValue();
 
         String performanceInfo = "User with id: " + user.getId() + ", email: "
@@ -313,7 +320,7 @@ public class IntegrationTest extends AbstractIntegrationTest {
 
         String logs = loggingContainer.getLogs(STDOUT);
         assertTrue(logs.contains(performanceInfo));
-        assertTrue(logs.contains(blockedBook + " has been blocked"));
+        verifyAuditMessage("book", "blocked", blockedBook.getId(), null);
     }
 
     @Test
@@ -351,8 +358,8 @@ public class IntegrationTest extends AbstractIntegrationTest {
                 .then()
                 .statusCode(HttpStatus.FORBIDDEN.value());
 
-        verify(messageSender, times(0)).sendInfo(anyString());
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class), any(Long.class),
+        verify(messageSender, times(0)).sendInfo(any(AuditMessage.class));
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class), any(ExecutionMeasurement.class),
                 anyString(), any(LocalDateTime.class));
 
     }
@@ -383,10 +390,10 @@ public class IntegrationTest extends AbstractIntegrationTest {
                 .then()
                 .statusCode(HttpStatus.ACCEPTED.value());
 
-        verify(messageSender).sendPerformanceInfo(any(User.class), longArgumentCaptor.capture(),
+        verify(messageSender).sendPerformanceInfo(any(User.class), measurementArgumentCaptor.capture(),
                 anyString(), localDateTimeArgumentCaptor.capture());
 
-        long executionTime = longArgumentCaptor.getValue();
+        long executionTime = measurementArgumentCaptor.getValue().getExecutionTime();
         LocalDateTime methodStart = localDateTimeArgumentCaptor.getValue();
 
         String performanceInfo = "User with id: " + user.getId() + ", email: "
@@ -400,8 +407,7 @@ public class IntegrationTest extends AbstractIntegrationTest {
                         frame.getUtf8String().contains(performanceInfo),
                 5, TimeUnit.SECONDS);
 
-        String logs = loggingContainer.getLogs();
-        assertTrue(logs.contains(user + " has subscribed category: " + category));
+        verifyAuditMessage("user", "subscribed", user.getId(), category.getId());
     }
 
     @Test
@@ -430,9 +436,15 @@ public class IntegrationTest extends AbstractIntegrationTest {
                 .then()
                 .statusCode(HttpStatus.FORBIDDEN.value());
 
-        verify(messageSender, times(0)).sendInfo(anyString());
-        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class), any(Long.class),
+        verify(messageSender, times(0)).sendInfo(any(AuditMessage.class));
+        verify(messageSender, times(0)).sendPerformanceInfo(any(User.class), any(ExecutionMeasurement.class),
                 anyString(), any(LocalDateTime.class));
     }
 
+    private void verifyAuditMessage(String entityType, String action, int entityId, Integer relatedId) {
+        verify(messageSender, timeout(5000)).sendInfo(argThat(info -> entityType.equals(info.getEntityType())
+                && action.equals(info.getAction())
+                && List.of(entityId).equals(info.getEntityIds())
+                && Objects.equals(relatedId, info.getRelatedId())));
+    }
 }
@@ -5,12 +5,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import pl.zajonz.librarytest.common.State;
+import pl.zajonz.librarytest.model.BatchedInfoMessage;
 import pl.zajonz.librarytest.model.Book;
+import pl.zajonz.librarytest.model.BookSnapshot;
 import pl.zajonz.librarytest.model.Category;
 import pl.zajonz.librarytest.model.InfoMessage;
+import pl.zajonz.librarytest.model.Subscriber;
 import pl.zajonz.librarytest.model.User;
 
 import java.time.LocalDate;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -59,4 +63,42 @@ class InfoMessageMapperTest {
         assertEquals(user.getLastname(),returned.getUser_lastName());
         assertEquals(user.getEmail(),returned.getEmail());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testToInfoMessage_Subscriber() {
+        //given
+        Subscriber subscriber = new Subscriber(1, "Test123", "test@test.pl", "Test", "Testowy");
+        BookSnapshot book = new BookSnapshot(1, "Test", "Testowy", 2, "Testowy");
+        //when
+        InfoMessage returned = mapper.toInfoMessage(book, subscriber);
+
+        //then
+        assertEquals(book.id(),returned.getBookId());
+        assertEquals(book.title(),returned.getBook_title());
+        assertEquals(book.author(),returned.getBook_author());
+        assertEquals(book.categoryName(),returned.getBook_category());
+        assertEquals(subscriber.getFirstname(),returned.getUser_firstName());
+        assertEquals(subscriber.getLastname(),returned.getUser_lastName());
+        assertEquals(subscriber.getEmail(),returned.getEmail());
+    }
+
+    @Test
+    void testToBatchedInfoMessage() {
+        //given
+        Subscriber subscriber = new Subscriber(1, "Test123", "test@test.pl", "Test", "Testowy");
+        Subscriber subscriber2 = new Subscriber(2, "Test456", "test2@test.pl", "Test2", "Testowy2");
+        BookSnapshot book = new BookSnapshot(1, "Test", "Testowy", 2, "Testowy");
+        //when
+        BatchedInfoMessage returned = mapper.toBatchedInfoMessage(book, List.of(subscriber, subscriber2));
+
+        //then
+        assertEquals(book.id(),returned.getBookId());
+        assertEquals(book.title(),returned.getBook_title());
+        assertEquals(book.author(),returned.getBook_author());
+        assertEquals(book.categoryName(),returned.getBook_category());
+        assertEquals(2,returned.getRecipients().size());
+        assertEquals(subscriber2.getEmail(),returned.getRecipients().get(1).getEmail());
+        assertEquals(subscriber2.getFirstname(),returned.getRecipients().get(1).getUser_firstName());
+        assertEquals(subscriber2.getLastname(),returned.getRecipients().get(1).getUser_lastName());
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import pl.zajonz.librarytest.model.ExecutionMeasurement;
 import pl.zajonz.librarytest.model.PerformanceInfo;
 import pl.zajonz.librarytest.model.User;
 
@@ -32,15 +33,26 @@ class PerformanceInfoMapperTest {
                 .build();
         LocalDateTime methodStartTime = LocalDateTime.now();
         String classMethodName = "Test.test(..)";
-        long executionTime = 123L;
+        ExecutionMeasurement measurement = ExecutionMeasurement.builder()
+                .executionTimeNanos(123_456_789L)
+                .cpuTimeNanos(23_456_789L)
+                .allocatedBytes(4096L)
+                .sqlStatementCount(3L)
+                .sqlTimeNanos(456_789L)
+                .build();
 
         //when
-        PerformanceInfo performanceInfo = mapper.toPerformanceInfo(user, executionTime, classMethodName, methodStartTime);
+        PerformanceInfo performanceInfo = mapper.toPerformanceInfo(user, measurement, classMethodName, methodStartTime);
 
         //then
         assertEquals(user.getId(), performanceInfo.getId());
         assertEquals(user.getEmail(), performanceInfo.getEmail());
-        assertEquals(executionTime, performanceInfo.getExecutionTime());
+        assertEquals(123L, performanceInfo.getExecutionTime());
+        assertEquals(measurement.getExecutionTimeNanos(), performanceInfo.getExecutionTimeNanos());
+        assertEquals(measurement.getCpuTimeNanos(), performanceInfo.getCpuTimeNanos());
+        assertEquals(measurement.getAllocatedBytes(), performanceInfo.getAllocatedBytes());
+        assertEquals(measurement.getSqlStatementCount(), performanceInfo.getSqlStatementCount());
+        assertEquals(measurement.getSqlTimeNanos(), performanceInfo.getSqlTimeNanos());
         assertEquals(classMethodName, performanceInfo.getClassMethodName());
         assertEquals(methodStartTime, performanceInfo.getMethodStartTime());
     }
@@ -0,0 +1,48 @@
+package pl.zajonz.librarytest.monitoring;
+
+import org.junit.jupiter.api.Test;
+import pl.zajonz.librarytest.model.ExecutionMeasurement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutionProbeTest {
+
+    @Test
+    void testStop_ResultsInWallCpuAndAllocationBeingMeasured() {
+        //given
+        ExecutionProbe probe = ExecutionProbe.start();
+        List<byte[]> garbage = new ArrayList<>();
+
+        //when
+        for (int i = 0; i < 100; i++) {
+            garbage.add(new byte[10_000]);
+        }
+        ExecutionMeasurement measurement = probe.stop();
+
+        //then
+        assertEquals(100, garbage.size());
+        assertTrue(measurement.getExecutionTimeNanos() > 0);
+        assertTrue(measurement.getCpuTimeNanos() >= 0);
+        assertTrue(measurement.getAllocatedBytes() >= 1_000_000);
+        assertEquals(measurement.getExecutionTimeNanos() / 1_000_000, measurement.getExecutionTime());
+    }
+
+    @Test
+    void testStop_ResultsInSqlStatementsOfCurrentThreadBeingCounted() {
+        //given
+        SqlStatementCounter.record(1_000);
+        ExecutionProbe probe = ExecutionProbe.start();
+
+        //when
+        SqlStatementCounter.record(2_000);
+        SqlStatementCounter.record(3_000);
+        ExecutionMeasurement measurement = probe.stop();
+
+        //then
+        assertEquals(2, measurement.getSqlStatementCount());
+        assertEquals(5_000, measurement.getSqlTimeNanos());
+    }
+}
@@ -0,0 +1,67 @@
+package pl.zajonz.librarytest.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testIndexOf_BucketBoundsContainValue() {
+        //given
+        long[] values = {0, 1, 31, 32, 63, 64, 65, 1_000, 123_456, 5_000_000_000L};
+
+        //when //then
+        for (long value : values) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.highestValueOf(index) >= value);
+            assertTrue(index == 0 || LatencyHistogram.highestValueOf(index - 1) < value);
+        }
+    }
+
+    @Test
+    void testValuesAtPercentiles_UniformValues() {
+        //given
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000_000L);
+        }
+
+        //when
+        long[] percentiles = histogram.valuesAtPercentiles(50, 99, 100);
+
+        //then
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500_000_000L, percentiles[0], 500_000_000L * 0.035);
+        assertEquals(990_000_000L, percentiles[1], 990_000_000L * 0.035);
+        assertEquals(1_000_000_000L, percentiles[2]);
+        assertEquals(1_000_000_000L, histogram.getMaxNanos());
+    }
+
+    @Test
+    void testValuesAtPercentiles_Empty() {
+        //given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        //when
+        long[] percentiles = histogram.valuesAtPercentiles(50, 99);
+
+        //then
+        assertEquals(0, histogram.getCount());
+        assertArrayEquals(new long[]{0, 0}, percentiles);
+    }
+
+    @Test
+    void testRecord_NegativeAndHugeValuesAreClamped() {
+        //given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        //when
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        //then
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.valuesAtPercentiles(50)[0]);
+    }
+}
@@ -0,0 +1,102 @@
+package pl.zajonz.librarytest.monitoring;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.zajonz.librarytest.adnotation.MonitorMethod;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonitoringSamplerTest {
+
+    private final MonitoringSampler sampler = newSampler();
+
+    @Test
+    void testShouldReport_DefaultAttributes_ReportsEveryCall() throws NoSuchMethodException {
+        //given
+        MonitorMethod monitorMethod = annotationOf("everyCall");
+
+        //when //then
+        for (int i = 0; i < 100; i++) {
+            assertTrue(sampler.shouldReport("Test.everyCall()", monitorMethod, 1));
+        }
+        assertEquals(0, sampler.getSkippedCount());
+    }
+
+    @Test
+    void testShouldReport_SlowerThan_SkipsFastCalls() throws NoSuchMethodException {
+        //given
+        MonitorMethod monitorMethod = annotationOf("slowOnly");
+
+        //when //then
+        assertFalse(sampler.shouldReport("Test.slowOnly()", monitorMethod, 9_000_000L));
+        assertTrue(sampler.shouldReport("Test.slowOnly()", monitorMethod, 10_000_000L));
+        assertEquals(1, sampler.getSkippedCount());
+    }
+
+    @Test
+    void testShouldReport_ZeroSampleRate_SkipsAllCalls() throws NoSuchMethodException {
+        //given
+        MonitorMethod monitorMethod = annotationOf("neverSampled");
+
+        //when //then
+        for (int i = 0; i < 100; i++) {
+            assertFalse(sampler.shouldReport("Test.neverSampled()", monitorMethod, 1));
+        }
+        assertEquals(100, sampler.getSkippedCount());
+    }
+
+    @Test
+    void testShouldReport_GlobalOverride_WinsOverAnnotation() throws NoSuchMethodException {
+        //given
+        MonitorMethod monitorMethod = annotationOf("neverSampled");
+        ReflectionTestUtils.setField(sampler, "sampleRateOverride", 1.0);
+        ReflectionTestUtils.setField(sampler, "slowerThanMsOverride", 5L);
+
+        //when //then
+        assertTrue(sampler.shouldReport("Test.neverSampled()", monitorMethod, 5_000_000L));
+        assertFalse(sampler.shouldReport("Test.neverSampled()", monitorMethod, 4_000_000L));
+    }
+
+    @Test
+    void testShouldReport_Adaptive_FirstWindowReportsEveryCall() throws NoSuchMethodException {
+        //given
+        MonitorMethod monitorMethod = annotationOf("adaptive");
+        ReflectionTestUtils.setField(sampler, "adaptiveMaxPerSecond", 1);
+
+        //when //then
+        for (int i = 0; i < 10; i++) {
+            assertTrue(sampler.shouldReport("Test.adaptive()", monitorMethod, 1));
+        }
+    }
+
+    private static MonitoringSampler newSampler() {
+        MonitoringSampler sampler = new MonitoringSampler();
+        ReflectionTestUtils.setField(sampler, "sampleRateOverride", -1.0);
+        ReflectionTestUtils.setField(sampler, "slowerThanMsOverride", -1L);
+        ReflectionTestUtils.setField(sampler, "adaptiveMaxPerSecond", 100);
+        return sampler;
+    }
+
+    private static MonitorMethod annotationOf(String methodName) throws NoSuchMethodException {
+        return Monitored.class.getDeclaredMethod(methodName).getAnnotation(MonitorMethod.class);
+    }
+
+    private static class Monitored {
+
+        @MonitorMethod
+        void everyCall() {
+        }
+
+        @MonitorMethod(slowerThanMs = 10)
+        void slowOnly() {
+        }
+
+        @MonitorMethod(sampleRate = 0.0)
+        void neverSampled() {
+        }
+
+        @MonitorMethod(adaptive = true)
+        void adaptive() {
+        }
+    }
+}
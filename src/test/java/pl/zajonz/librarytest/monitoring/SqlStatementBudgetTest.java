@@ -0,0 +1,49 @@
+package pl.zajonz.librarytest.monitoring;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.zajonz.librarytest.model.ExecutionMeasurement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatementBudgetTest {
+
+    private final SqlStatementBudget budget = new SqlStatementBudget();
+
+    @Test
+    void testCheck_WithinBudget_ReturnsTrue() {
+        //given
+        ReflectionTestUtils.setField(budget, "statementBudget", 5L);
+
+        //when //then
+        assertTrue(budget.check("Test.test()", measurementOf(5)));
+        assertEquals(0, budget.getExceededCount());
+    }
+
+    @Test
+    void testCheck_OverBudget_ReturnsFalseAndCountsIt() {
+        //given
+        ReflectionTestUtils.setField(budget, "statementBudget", 5L);
+
+        //when //then
+        assertFalse(budget.check("Test.test()", measurementOf(6)));
+        assertEquals(1, budget.getExceededCount());
+    }
+
+    @Test
+    void testCheck_NegativeBudget_Disabled() {
+        //given
+        ReflectionTestUtils.setField(budget, "statementBudget", -1L);
+
+        //when //then
+        assertTrue(budget.check("Test.test()", measurementOf(1_000)));
+        assertEquals(0, budget.getExceededCount());
+    }
+
+    private static ExecutionMeasurement measurementOf(long sqlStatementCount) {
+        return ExecutionMeasurement.builder()
+                .sqlStatementCount(sqlStatementCount)
+                .sqlTimeNanos(sqlStatementCount * 1_000)
+                .build();
+    }
+}
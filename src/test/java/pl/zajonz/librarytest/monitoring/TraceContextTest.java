@@ -0,0 +1,75 @@
+package pl.zajonz.librarytest.monitoring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceContextTest {
+
+    @AfterEach
+    void clearContext() {
+        TraceContext.clear();
+    }
+
+    @Test
+    void testApplyHeaders_InEvent_ResultsInTraceIdAndHopTimestampsBeingSet() {
+        //given
+        Instant createdAt = Instant.parse("2023-05-01T10:15:30Z");
+        Instant committedAt = Instant.parse("2023-05-01T10:15:31Z");
+        MessageProperties properties = new MessageProperties();
+
+        //when
+        TraceContext.inEvent("trace-1", createdAt, committedAt, () -> TraceContext.applyHeaders(properties));
+
+        //then
+        assertEquals("trace-1", properties.getHeader(TraceContext.TRACE_ID_HEADER));
+        assertEquals(createdAt.toString(), properties.getHeader(TraceContext.EVENT_CREATED_AT_HEADER));
+        assertEquals(committedAt.toString(), properties.getHeader(TraceContext.COMMITTED_AT_HEADER));
+        assertNull(TraceContext.currentTraceId());
+    }
+
+    @Test
+    void testApplyHeaders_InEventWithoutCommitTime_ResultsInCommittedAtBeingOmitted() {
+        //given
+        Instant createdAt = Instant.parse("2023-05-01T10:15:30Z");
+        MessageProperties properties = new MessageProperties();
+
+        //when
+        TraceContext.inEvent("trace-1", createdAt, null, () -> TraceContext.applyHeaders(properties));
+
+        //then
+        assertEquals(createdAt.toString(), properties.getHeader(TraceContext.EVENT_CREATED_AT_HEADER));
+        assertNull(properties.getHeader(TraceContext.COMMITTED_AT_HEADER));
+    }
+
+    @Test
+    void testApplyHeaders_ExistingTraceId_ResultsInHeaderBeingKept() {
+        //given
+        MessageProperties properties = new MessageProperties();
+        properties.setHeader(TraceContext.TRACE_ID_HEADER, "spooled-trace");
+        TraceContext.setTraceId("current-trace");
+
+        //when
+        TraceContext.applyHeaders(properties);
+
+        //then
+        assertEquals("spooled-trace", properties.getHeader(TraceContext.TRACE_ID_HEADER));
+        assertNull(properties.getHeader(TraceContext.COMMITTED_AT_HEADER));
+    }
+
+    @Test
+    void testApplyHeaders_NoContext_ResultsInTraceIdBeingGenerated() {
+        //given
+        MessageProperties properties = new MessageProperties();
+
+        //when
+        TraceContext.applyHeaders(properties);
+
+        //then
+        assertNotNull(properties.getHeader(TraceContext.TRACE_ID_HEADER));
+    }
+}
@@ -0,0 +1,49 @@
+package pl.zajonz.librarytest.monitoring;
+
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceIdFilterTest {
+
+    private final TraceIdFilter filter = new TraceIdFilter();
+
+    @Test
+    void testDoFilter_IncomingTraceId_ResultsInTraceIdBeingPropagated() throws ServletException, IOException {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(TraceContext.TRACE_ID_HEADER, "abc-123");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> traceIdInChain = new AtomicReference<>();
+
+        //when
+        filter.doFilter(request, response, (req, res) -> traceIdInChain.set(TraceContext.currentTraceId()));
+
+        //then
+        assertEquals("abc-123", traceIdInChain.get());
+        assertEquals("abc-123", response.getHeader(TraceContext.TRACE_ID_HEADER));
+        assertNull(TraceContext.currentTraceId());
+    }
+
+    @Test
+    void testDoFilter_InvalidTraceId_ResultsInNewTraceIdBeingGenerated() throws ServletException, IOException {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(TraceContext.TRACE_ID_HEADER, "not valid\r\n");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when
+        filter.doFilter(request, response, (req, res) -> {
+        });
+
+        //then
+        assertNotEquals("not valid\r\n", response.getHeader(TraceContext.TRACE_ID_HEADER));
+        assertNotNull(response.getHeader(TraceContext.TRACE_ID_HEADER));
+    }
+}
@@ -0,0 +1,63 @@
+package pl.zajonz.librarytest.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import pl.zajonz.librarytest.common.BookImportFormat;
+import pl.zajonz.librarytest.model.Book;
+import pl.zajonz.librarytest.model.BookImportReport;
+import pl.zajonz.librarytest.service.BookImportService;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs on its own database, so the book id generator is seeded from existing rows exactly like the
+ * migration does on a populated database, before any id has been handed out.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bookIdDb;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class BookIdGenerationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Test
+    void testImportBooks_ExistingBooks_ResultsInIdsAboveExistingIds() {
+        //given
+        jdbcTemplate.update("INSERT INTO category(`name`) VALUES ('test')");
+        int categoryId = jdbcTemplate.queryForObject("SELECT MAX(`id`) FROM category", Integer.class);
+        for (int i = 0; i < 100; i++) {
+            jdbcTemplate.update("INSERT INTO book(`author`,`state`,`title`,`is_blocked`,`category_id`) "
+                    + "VALUES ('Testowy',0,'Existing',0,?)", categoryId);
+        }
+        int maxId = jdbcTemplate.queryForObject("SELECT MAX(`id`) FROM book", Integer.class);
+        jdbcTemplate.update("UPDATE id_generator SET next_val = ? WHERE name = 'book'", maxId + 1);
+
+        //when
+        BookImportReport report = bookImportService.importBooks(new ByteArrayInputStream(("""
+                title,author,categoryId
+                First,Testowy,%1$d
+                Second,Testowy,%1$d
+                Third,Testowy,%1$d
+                """.formatted(categoryId)).getBytes(StandardCharsets.UTF_8)), BookImportFormat.CSV);
+
+        //then
+        assertEquals(3, report.getImported());
+        List<Book> imported = bookRepository.findAll().stream()
+                .filter(book -> !book.getTitle().equals("Existing"))
+                .toList();
+        assertEquals(3, imported.size());
+        assertTrue(imported.stream().allMatch(book -> book.getId() > maxId));
+    }
+}
@@ -0,0 +1,94 @@
+package pl.zajonz.librarytest.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.zajonz.librarytest.model.BookLoan;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs on its own database with a short lock timeout, so a second transaction waiting on a row locked
+ * by the first one fails fast instead of hanging the test.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bookLockDb;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=500")
+@ActiveProfiles("test")
+class BookRepositoryTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private int userId;
+    private int borrowedId;
+    private int readyId;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.update("INSERT INTO category(`name`) VALUES ('lock')");
+        int categoryId = jdbcTemplate.queryForObject("SELECT MAX(`id`) FROM category", Integer.class);
+        jdbcTemplate.update("INSERT INTO users(`firstname`,`lastname`,`username`,`password`,`email`,`role`,`locked`) "
+                + "VALUES ('Lock','Lock','LockUser','pass','lock.user@gmail.com','ROLE_CUSTOMER',0)");
+        userId = jdbcTemplate.queryForObject("SELECT `id` FROM users WHERE `username` = 'LockUser'", Integer.class);
+        jdbcTemplate.update("INSERT INTO book(`id`,`author`,`state`,`title`,`is_blocked`,`category_id`) "
+                + "VALUES (9001,'Testowy',0,'Ready',0,?)", categoryId);
+        jdbcTemplate.update("INSERT INTO book(`id`,`author`,`state`,`title`,`is_blocked`,`category_id`,`user_id`) "
+                + "VALUES (9002,'Testowy',1,'Borrowed',0,?,?)", categoryId, userId);
+        readyId = 9001;
+        borrowedId = 9002;
+    }
+
+    @AfterEach
+    public void clearDatabase() {
+        jdbcTemplate.update("DELETE FROM book WHERE `id` IN (9001, 9002)");
+        jdbcTemplate.update("DELETE FROM users WHERE `username` = 'LockUser'");
+        jdbcTemplate.update("DELETE FROM category WHERE `name` = 'lock'");
+    }
+
+    @Test
+    void testFindLoansByIdIn_ResultsInLoansOrderedById() {
+        //when
+        List<BookLoan> loans = bookRepository.findLoansByIdIn(Set.of(borrowedId, readyId));
+
+        //then
+        assertEquals(List.of(new BookLoan(readyId, null), new BookLoan(borrowedId, "LockUser")), loans);
+    }
+
+    @Test
+    void testLockAllByIdIn_ResultsInBookRowsLockedAndBorrowerRowFree() {
+        //given
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        TransactionTemplate other = new TransactionTemplate(transactionManager);
+        other.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        //when
+        transaction.executeWithoutResult(status -> {
+            assertEquals(List.of(readyId, borrowedId), bookRepository.lockAllByIdIn(Set.of(borrowedId, readyId)));
+
+            //then
+            assertDoesNotThrow(() -> CompletableFuture.runAsync(() -> other.executeWithoutResult(inner ->
+                            jdbcTemplate.update("UPDATE users SET `locked` = 0 WHERE `id` = ?", userId)))
+                    .get(5, TimeUnit.SECONDS));
+            assertThrows(ExecutionException.class, () -> CompletableFuture.runAsync(() ->
+                            other.executeWithoutResult(inner -> jdbcTemplate.update(
+                                    "UPDATE book SET `is_blocked` = 0 WHERE `id` = ?", borrowedId)))
+                    .get(5, TimeUnit.SECONDS));
+        });
+    }
+}
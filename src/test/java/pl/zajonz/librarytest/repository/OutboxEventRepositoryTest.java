@@ -0,0 +1,45 @@
+package pl.zajonz.librarytest.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import pl.zajonz.librarytest.event.model.InfoEventKind;
+import pl.zajonz.librarytest.model.OutboxEvent;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OutboxEventRepositoryTest {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @AfterEach
+    public void clearDatabase() {
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    void testSave_BulkEventWithWideIds_ResultsInAllIdsBeingStored() {
+        //given
+        List<Integer> ids = IntStream.range(0, 500).map(i -> 1_000_000_000 + i).boxed().toList();
+
+        //when
+        OutboxEvent saved = outboxEventRepository.save(OutboxEvent.builder()
+                .type(OutboxEvent.OutboxEventType.INFO)
+                .infoKind(InfoEventKind.BOOK_RETURNED)
+                .entityIds(ids)
+                .createdAt(Instant.now())
+                .build());
+
+        //then
+        assertEquals(ids, outboxEventRepository.findById(saved.getId()).orElseThrow().getEntityIds());
+    }
+}
@@ -0,0 +1,227 @@
+package pl.zajonz.librarytest.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.zajonz.librarytest.common.BookImportFormat;
+import pl.zajonz.librarytest.event.model.BookEvent;
+import pl.zajonz.librarytest.event.model.InfoEvent;
+import pl.zajonz.librarytest.mapper.BookMapper;
+import pl.zajonz.librarytest.mapper.BookMapperImpl;
+import pl.zajonz.librarytest.model.BookImportReport;
+import pl.zajonz.librarytest.model.Category;
+import pl.zajonz.librarytest.repository.BookRepository;
+import pl.zajonz.librarytest.repository.CategoryRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@ActiveProfiles("test")
+class BookImportServiceImplTest {
+
+    @InjectMocks
+    private BookImportServiceImpl bookImportService;
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private EntityManager entityManager;
+    @Spy
+    private BookMapper bookMapper = new BookMapperImpl();
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    @Spy
+    private TransactionTemplate transactionOperations = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Test
+    void testImportBooks_Csv_ResultsInChunkedInsertsAndOneCategoryLookup() {
+        //given
+        ReflectionTestUtils.setField(bookImportService, "batchSize", 2);
+        Category category = Category.builder()
+                .id(1)
+                .name("test")
+                .build();
+        when(categoryRepository.findById(1)).thenReturn(Optional.of(category));
+
+        //when
+        BookImportReport report = bookImportService.importBooks(input("""
+                title,author,categoryId
+                First,Testowy,1
+                Second,Testowy,1
+                Third,Testowy,1
+                """), BookImportFormat.CSV);
+
+        //then
+        assertEquals(3, report.getImported());
+        assertEquals(0, report.getRejected());
+        assertEquals(3, bookImportService.getImportedCount());
+        verify(categoryRepository, times(1)).findById(1);
+        verify(bookRepository, times(2)).saveAll(anyList());
+        verify(entityManager, times(2)).clear();
+        verify(eventPublisher, times(2)).publishEvent(any(InfoEvent.class));
+        verify(eventPublisher, times(3)).publishEvent(any(BookEvent.class));
+    }
+
+    @Test
+    void testImportBooks_Ndjson_ResultsInInvalidRowsBeingRejected() {
+        //given
+        Category category = Category.builder()
+                .id(1)
+                .name("test")
+                .build();
+        when(categoryRepository.findById(1)).thenReturn(Optional.of(category));
+        when(categoryRepository.findById(2)).thenReturn(Optional.empty());
+
+        //when
+        BookImportReport report = bookImportService.importBooks(input("""
+                {"title":"First","author":"Testowy","categoryId":1}
+                {"title":"First","author":"Testowy","categoryId":2}
+                {"title":"first","author":"Testowy","categoryId":1}
+                {"title":
+                """), BookImportFormat.NDJSON);
+
+        //then
+        assertEquals(1, report.getImported());
+        assertEquals(3, report.getRejected());
+        assertEquals(List.of(
+                "line 2: Not found category with id: 2",
+                "line 3: title has to match the pattern",
+                "line 4: malformed JSON"), report.getErrors());
+        verify(bookRepository, times(1)).saveAll(anyList());
+        verify(eventPublisher, times(1)).publishEvent(argThat((Object event) -> event instanceof BookEvent bookEvent
+                && bookEvent.getBook().categoryId() == category.getId()));
+    }
+
+    @Test
+    void testImportBooks_ChunkFails_ResultsInPartialReportWithFailedLines() {
+        //given
+        ReflectionTestUtils.setField(bookImportService, "batchSize", 2);
+        Category category = Category.builder()
+                .id(1)
+                .name("test")
+                .build();
+        when(categoryRepository.findById(1)).thenReturn(Optional.of(category));
+        when(bookRepository.saveAll(anyList()))
+                .thenReturn(List.of())
+                .thenThrow(new DataIntegrityViolationException("duplicate title"))
+                .thenReturn(List.of());
+
+        //when
+        BookImportReport report = bookImportService.importBooks(input("""
+                title,author,categoryId
+                First,Testowy,1
+                Second,Testowy,1
+                Third,Testowy,1
+                Fourth,Testowy,1
+                Fifth,Testowy,1
+                """), BookImportFormat.CSV);
+
+        //then
+        assertEquals(3, report.getImported());
+        assertEquals(2, report.getFailed());
+        assertEquals(List.of("lines 4-5: duplicate title"), report.getFailedChunks());
+        assertEquals(2, bookImportService.getFailedCount());
+        verify(bookRepository, times(3)).saveAll(anyList());
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void testImportBooks_NothingValid_ResultsInNoInsert() {
+        //when
+        BookImportReport report = bookImportService.importBooks(input("""
+                title,author,categoryId
+                First,Testowy
+                """), BookImportFormat.CSV);
+
+        //then
+        assertEquals(0, report.getImported());
+        assertEquals(List.of("line 2: expected 3 columns"), report.getErrors());
+        verify(bookRepository, never()).saveAll(anyList());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testImportBooks_CsvWithQuotedFields_ResultsInCommasAndQuotesBeingKept() {
+        //given
+        Category category = Category.builder()
+                .id(1)
+                .name("test")
+                .build();
+        when(categoryRepository.findById(1)).thenReturn(Optional.of(category));
+
+        //when
+        BookImportReport report = bookImportService.importBooks(input("""
+                title,author,categoryId
+                "Hello, World",Testowy,1
+                "First","Testowy","1"
+                "Say ""Hi""\",Testowy,1
+                """), BookImportFormat.CSV);
+
+        //then
+        assertEquals(1, report.getImported());
+        assertEquals(List.of(
+                "line 2: title has to match the pattern",
+                "line 4: title has to match the pattern"), report.getErrors());
+        verify(eventPublisher, times(1)).publishEvent(argThat((Object event) -> event instanceof BookEvent bookEvent
+                && bookEvent.getBook().title().equals("First") && bookEvent.getBook().author().equals("Testowy")));
+    }
+
+    @Test
+    void testImportBooks_CsvWithUnterminatedQuote_ResultsInRestBeingRejected() {
+        //given
+        Category category = Category.builder()
+                .id(1)
+                .name("test")
+                .build();
+        when(categoryRepository.findById(1)).thenReturn(Optional.of(category));
+
+        //when
+        BookImportReport report = bookImportService.importBooks(input("""
+                title,author,categoryId
+                First,Testowy,1
+                "Second,Testowy,1
+                Third,Testowy,1
+                """), BookImportFormat.CSV);
+
+        //then
+        assertEquals(1, report.getImported());
+        assertEquals(List.of("line 3: malformed CSV"), report.getErrors());
+    }
+
+    @Test
+    void testImportBooks_CsvWithoutHeader_ResultsInIllegalArgumentException() {
+        //when //then
+        assertThrows(IllegalArgumentException.class, () -> bookImportService.importBooks(
+                input("First,Testowy,1\n"), BookImportFormat.CSV));
+    }
+
+    private static InputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
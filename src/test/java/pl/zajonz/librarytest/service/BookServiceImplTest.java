@@ -3,21 +3,32 @@ package pl.zajonz.librarytest.service;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.zajonz.librarytest.common.BorrowConcurrency;
 import pl.zajonz.librarytest.common.State;
 import pl.zajonz.librarytest.event.model.BookEvent;
 import pl.zajonz.librarytest.event.model.InfoEvent;
+import pl.zajonz.librarytest.event.model.InfoEventKind;
 import pl.zajonz.librarytest.model.Book;
+import pl.zajonz.librarytest.model.BookLoan;
 import pl.zajonz.librarytest.model.Category;
+import pl.zajonz.librarytest.model.CheckoutResult;
+import pl.zajonz.librarytest.model.ReturnResult;
 import pl.zajonz.librarytest.model.User;
 import pl.zajonz.librarytest.repository.BookRepository;
 import pl.zajonz.librarytest.repository.CategoryRepository;
@@ -27,6 +38,7 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -46,6 +58,8 @@ class BookServiceImplTest {
     private UserRepository userRepository;
     @Mock
     private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private TransactionTemplate transactionOperations = new TransactionTemplate(mock(PlatformTransactionManager.class));
 
     @Test
     void testCreate_ResultsInBookBeingReturned() {
@@ -253,6 +267,222 @@ class BookServiceImplTest {
         verify(eventPublisher, times(0)).publishEvent(any(InfoEvent.class));
     }
 
+    @Test
+    void testBorrowBook_Optimistic_ConflictResultsInRetry() {
+        //given
+        ReflectionTestUtils.setField(bookService, "borrowConcurrency", BorrowConcurrency.OPTIMISTIC);
+        User user = User.builder()
+                .id(1)
+                .username("Test")
+                .build();
+        Book book = Book.builder()
+                .id(1)
+                .state(State.READY)
+                .build();
+        when(bookRepository.findById(1)).thenAnswer(invocation -> Optional.of(Book.builder()
+                .id(1)
+                .state(State.READY)
+                .build()));
+        when(userRepository.findByUsername("Test")).thenReturn(Optional.of(user));
+        when(bookRepository.save(any(Book.class)))
+                .thenThrow(new OptimisticLockingFailureException("conflict"))
+                .thenReturn(book);
+
+        //when
+        Book returned = bookService.borrowBook("Test", 1, LocalDate.now().plusDays(10));
+
+        //then
+        assertEquals(book, returned);
+        verify(bookRepository, times(2)).findById(1);
+        verify(bookRepository, times(2)).save(any(Book.class));
+        verify(bookRepository, never()).findWithLockingById(anyInt());
+    }
+
+    @Test
+    void testBorrowBook_Optimistic_ConflictsExhaustAttempts() {
+        //given
+        ReflectionTestUtils.setField(bookService, "borrowConcurrency", BorrowConcurrency.OPTIMISTIC);
+        ReflectionTestUtils.setField(bookService, "borrowMaxAttempts", 2);
+        when(bookRepository.findById(1))
+                .thenAnswer(invocation -> Optional.of(Book.builder().id(1).state(State.READY).build()));
+        when(userRepository.findByUsername("Test")).thenReturn(Optional.of(User.builder().id(1).build()));
+        when(bookRepository.save(any(Book.class))).thenThrow(new OptimisticLockingFailureException("conflict"));
+
+        //when
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> bookService.borrowBook("Test", 1, LocalDate.now().plusDays(10)));
+
+        //then
+        verify(bookRepository, times(2)).save(any(Book.class));
+        verify(eventPublisher, times(0)).publishEvent(any(InfoEvent.class));
+    }
+
+    @Test
+    void testBorrowBook_ConditionalUpdate_ResultsInBookBeingReturned() {
+        //given
+        ReflectionTestUtils.setField(bookService, "borrowConcurrency", BorrowConcurrency.CONDITIONAL_UPDATE);
+        User user = User.builder()
+                .id(1)
+                .username("Test")
+                .build();
+        Book borrowed = Book.builder()
+                .id(1)
+                .user(user)
+                .state(State.BORROWED)
+                .build();
+        LocalDate to = LocalDate.now().plusDays(10);
+        when(userRepository.findByUsername("Test")).thenReturn(Optional.of(user));
+        when(bookRepository.borrowIfReady(1, user, LocalDate.now(), to)).thenReturn(1);
+        when(bookRepository.findById(1)).thenReturn(Optional.of(borrowed));
+
+        //when
+        Book returned = bookService.borrowBook("Test", 1, to);
+
+        //then
+        assertEquals(borrowed, returned);
+        verify(bookRepository, never()).save(any(Book.class));
+        verify(eventPublisher, times(1)).publishEvent(any(InfoEvent.class));
+    }
+
+    @Test
+    void testBorrowBook_ConditionalUpdateBookBorrowed_ResultsInIllegalArgumentException() {
+        //given
+        ReflectionTestUtils.setField(bookService, "borrowConcurrency", BorrowConcurrency.CONDITIONAL_UPDATE);
+        User user = User.builder()
+                .id(1)
+                .username("Test")
+                .build();
+        LocalDate to = LocalDate.now().plusDays(10);
+        Book book = Book.builder()
+                .id(1)
+                .state(State.BORROWED)
+                .toDate(to)
+                .build();
+        when(userRepository.findByUsername("Test")).thenReturn(Optional.of(user));
+        when(bookRepository.borrowIfReady(1, user, LocalDate.now(), to)).thenReturn(0);
+        when(bookRepository.findById(1)).thenReturn(Optional.of(book));
+
+        //when
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> bookService.borrowBook("Test", 1, to));
+
+        //then
+        assertEquals("Book is borrowed to: " + to, exception.getMessage());
+        verify(eventPublisher, times(0)).publishEvent(any(InfoEvent.class));
+    }
+
+    @Test
+    void testBorrowBook_StripedLock_ResultsInBookBeingReturned() {
+        //given
+        ReflectionTestUtils.setField(bookService, "borrowConcurrency", BorrowConcurrency.STRIPED_LOCK);
+        User user = User.builder()
+                .id(1)
+                .username("Test")
+                .build();
+        Book book = Book.builder()
+                .id(1)
+                .state(State.READY)
+                .build();
+        when(bookRepository.findById(1)).thenReturn(Optional.of(book));
+        when(userRepository.findByUsername("Test")).thenReturn(Optional.of(user));
+        when(bookRepository.save(book)).thenReturn(book);
+
+        //when
+        Book returned = bookService.borrowBook("Test", 1, LocalDate.now().plusDays(10));
+
+        //then
+        assertEquals(State.BORROWED, returned.getState());
+        assertEquals(user, returned.getUser());
+        verify(bookRepository, never()).findWithLockingById(anyInt());
+    }
+
+    @Test
+    void testBorrowBook_StripedLockConflict_ResultsInRetry() {
+        //given
+        ReflectionTestUtils.setField(bookService, "borrowConcurrency", BorrowConcurrency.STRIPED_LOCK);
+        Book book = Book.builder()
+                .id(1)
+                .state(State.READY)
+                .build();
+        when(bookRepository.findById(1))
+                .thenAnswer(invocation -> Optional.of(Book.builder().id(1).state(State.READY).build()));
+        when(userRepository.findByUsername("Test")).thenReturn(Optional.of(User.builder().id(1).build()));
+        when(bookRepository.save(any(Book.class)))
+                .thenThrow(new OptimisticLockingFailureException("changed on another node"))
+                .thenReturn(book);
+
+        //when
+        Book returned = bookService.borrowBook("Test", 1, LocalDate.now().plusDays(10));
+
+        //then
+        assertEquals(book, returned);
+        verify(bookRepository, times(2)).save(any(Book.class));
+    }
+
+    @Test
+    void testCheckoutBooks_ResultsInPerItemResultsAndOneLockingQuery() {
+        //given
+        User user = User.builder()
+                .id(1)
+                .username("Test")
+                .build();
+        Book ready = Book.builder()
+                .id(1)
+                .state(State.READY)
+                .build();
+        Book blocked = Book.builder()
+                .id(2)
+                .isBlocked(true)
+                .state(State.READY)
+                .build();
+        LocalDate to = LocalDate.now().plusDays(10);
+        when(userRepository.findByUsername("Test")).thenReturn(Optional.of(user));
+        when(bookRepository.findAllWithLockingByIdInOrderByIdAsc(new TreeSet<>(List.of(1, 2, 3))))
+                .thenReturn(List.of(ready, blocked));
+
+        //when
+        List<CheckoutResult> results = bookService.checkoutBooks("Test", List.of(3, 2, 1), to);
+
+        //then
+        assertEquals(3, results.size());
+        assertEquals("Not found book with id: 3", results.get(0).getFailure());
+        assertEquals("Book with id: 2 cannot be borrowed", results.get(1).getFailure());
+        assertEquals(ready, results.get(2).getBook());
+        assertEquals(State.BORROWED, ready.getState());
+        assertEquals(user, ready.getUser());
+        assertEquals(to, ready.getToDate());
+        verify(userRepository, times(1)).findByUsername("Test");
+        verify(bookRepository, times(1)).saveAll(List.of(ready));
+        verify(eventPublisher, times(1)).publishEvent(any(InfoEvent.class));
+    }
+
+    @Test
+    void testCheckoutBooks_DuplicateIds_ResultsInDuplicateBeingReported() {
+        //given
+        User user = User.builder()
+                .id(1)
+                .username("Test")
+                .build();
+        Book ready = Book.builder()
+                .id(1)
+                .state(State.READY)
+                .build();
+        when(userRepository.findByUsername("Test")).thenReturn(Optional.of(user));
+        when(bookRepository.findAllWithLockingByIdInOrderByIdAsc(new TreeSet<>(List.of(1))))
+                .thenReturn(List.of(ready));
+
+        //when
+        List<CheckoutResult> results = bookService.checkoutBooks("Test", List.of(1, 1), LocalDate.now().plusDays(10));
+
+        //then
+        assertEquals(2, results.size());
+        assertEquals(ready, results.get(0).getBook());
+        assertEquals("Book with id: 1 is duplicated in the request", results.get(1).getFailure());
+        verify(bookRepository, times(1)).saveAll(List.of(ready));
+        verify(eventPublisher, times(1)).publishEvent(argThat((Object event) -> event instanceof InfoEvent info
+                && info.entityIds().equals(List.of(1))));
+    }
+
     @Test
     void testReturnBook_CorrectValues_ResultsInBookBeingReturned() {
         //given
@@ -373,6 +603,88 @@ class BookServiceImplTest {
         verify(eventPublisher, times(0)).publishEvent(any(InfoEvent.class));
     }
 
+    @Test
+    void testCheckoutBooks_ResultsInOneInfoEventForAllBorrowedBooks() {
+        //given
+        User user = User.builder()
+                .id(1)
+                .username("Test")
+                .build();
+        Book first = Book.builder()
+                .id(1)
+                .state(State.READY)
+                .build();
+        Book second = Book.builder()
+                .id(2)
+                .state(State.READY)
+                .build();
+        when(userRepository.findByUsername("Test")).thenReturn(Optional.of(user));
+        when(bookRepository.findAllWithLockingByIdInOrderByIdAsc(new TreeSet<>(List.of(1, 2))))
+                .thenReturn(List.of(first, second));
+
+        //when
+        bookService.checkoutBooks("Test", List.of(2, 1), LocalDate.now().plusDays(10));
+
+        //then
+        verify(eventPublisher, times(1)).publishEvent(argThat((Object event) -> event instanceof InfoEvent info
+                && info.kind() == InfoEventKind.BOOK_BORROWED
+                && info.entityIds().equals(List.of(2, 1))
+                && info.relatedId() == 1));
+    }
+
+    @Test
+    void testReturnBooks_ResultsInPerItemResultsAndOneUpdate() {
+        //given
+        when(bookRepository.findLoansByIdIn(new TreeSet<>(List.of(1, 2, 3, 4))))
+                .thenReturn(List.of(new BookLoan(1, "Test"), new BookLoan(2, null), new BookLoan(3, "Other")));
+
+        //when
+        List<ReturnResult> results = bookService.returnBooks("Test", "[ROLE_CUSTOMER]", List.of(4, 3, 2, 1, 1));
+
+        //then
+        assertEquals(5, results.size());
+        assertEquals("Not found book with id: 4", results.get(0).getFailure());
+        assertEquals("No access to book with id: 3", results.get(1).getFailure());
+        assertEquals("Book with id: 2 is not borrowed", results.get(2).getFailure());
+        assertEquals(ReturnResult.returned(1), results.get(3));
+        assertEquals("Book with id: 1 is already returned", results.get(4).getFailure());
+        verify(bookRepository, times(1)).returnAll(Set.of(1));
+        verify(eventPublisher, times(1)).publishEvent(any(InfoEvent.class));
+        InOrder inOrder = inOrder(bookRepository);
+        inOrder.verify(bookRepository).lockAllByIdIn(new TreeSet<>(List.of(1, 2, 3, 4)));
+        inOrder.verify(bookRepository).findLoansByIdIn(new TreeSet<>(List.of(1, 2, 3, 4)));
+    }
+
+    @Test
+    void testReturnBooks_Employee_ResultsInAllBorrowedBooksBeingReturned() {
+        //given
+        when(bookRepository.findLoansByIdIn(new TreeSet<>(List.of(1, 2))))
+                .thenReturn(List.of(new BookLoan(1, "Test"), new BookLoan(2, "Other")));
+
+        //when
+        List<ReturnResult> results = bookService.returnBooks("Admin", "[ROLE_EMPLOYEE]", List.of(1, 2));
+
+        //then
+        assertEquals(List.of(ReturnResult.returned(1), ReturnResult.returned(2)), results);
+        verify(bookRepository, times(1)).returnAll(Set.of(1, 2));
+        verify(eventPublisher, times(1)).publishEvent(any(InfoEvent.class));
+    }
+
+    @Test
+    void testReturnBooks_NothingReturnable_ResultsInNoUpdate() {
+        //given
+        when(bookRepository.findLoansByIdIn(new TreeSet<>(List.of(1))))
+                .thenReturn(List.of(new BookLoan(1, null)));
+
+        //when
+        List<ReturnResult> results = bookService.returnBooks("Test", "[ROLE_CUSTOMER]", List.of(1));
+
+        //then
+        assertEquals("Book with id: 1 is not borrowed", results.get(0).getFailure());
+        verify(bookRepository, never()).returnAll(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
     @Test
     void testGetAll_ResultsInListBookBeingReturned() {
         //given
@@ -0,0 +1,48 @@
+package pl.zajonz.librarytest.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.zajonz.librarytest.model.InfoMessage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileMessageTransportTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testPublish_ResultsInOneJsonLinePerMessage() throws IOException {
+        //given
+        Path file = tempDir.resolve("messages.jsonl");
+        FileMessageTransport transport = new FileMessageTransport(objectMapper);
+        ReflectionTestUtils.setField(transport, "path", file.toString());
+        transport.start();
+        InfoMessage infoMessage = new InfoMessage();
+        infoMessage.setBookId(1);
+        infoMessage.setEmail("test@test.pl");
+
+        //when
+        transport.publish("info", "Book has been created");
+        transport.publish("info-email", infoMessage);
+        transport.stop();
+
+        //then
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        JsonNode second = objectMapper.readTree(lines.get(1));
+        assertEquals("info-email", second.get("queue").asText());
+        assertEquals("test@test.pl", second.get("payload").get("email").asText());
+        assertNotNull(second.get("timestamp"));
+    }
+}
@@ -0,0 +1,61 @@
+package pl.zajonz.librarytest.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InProcessMessageTransportTest {
+
+    private InProcessMessageTransport transport;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (transport != null) {
+            transport.stop();
+        }
+    }
+
+    @Test
+    void testPublish_ResultsInMessagesBeingDeliveredToConsumers() throws InterruptedException {
+        //given
+        CountDownLatch latch = new CountDownLatch(100);
+        transport = newTransport(1000, (queueName, payload) -> latch.countDown());
+
+        //when
+        for (int i = 0; i < 100; i++) {
+            transport.publish("info", "message " + i);
+        }
+
+        //then
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertEquals(0, transport.getRejectedCount());
+    }
+
+    @Test
+    void testPublish_OverCapacity_ResultsInAmqpException() {
+        //given
+        InProcessMessageTransport notStarted = new InProcessMessageTransport(List.of());
+        ReflectionTestUtils.setField(notStarted, "capacity", 2);
+        notStarted.publish("info", "message 0");
+        notStarted.publish("info", "message 1");
+
+        //when //then
+        assertThrows(AmqpException.class, () -> notStarted.publish("info", "message 2"));
+        assertEquals(2, notStarted.getQueueDepth());
+        assertEquals(1, notStarted.getRejectedCount());
+    }
+
+    private static InProcessMessageTransport newTransport(int capacity, InProcessMessageConsumer consumer) {
+        InProcessMessageTransport transport = new InProcessMessageTransport(List.of(consumer));
+        ReflectionTestUtils.setField(transport, "capacity", capacity);
+        transport.start();
+        return transport;
+    }
+}
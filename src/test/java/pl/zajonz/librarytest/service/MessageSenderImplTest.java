@@ -0,0 +1,131 @@
+package pl.zajonz.librarytest.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.zajonz.librarytest.mapper.InfoMessageMapper;
+import pl.zajonz.librarytest.mapper.PerformanceInfoMapper;
+import pl.zajonz.librarytest.model.AuditMessage;
+import pl.zajonz.librarytest.model.BookSnapshot;
+import pl.zajonz.librarytest.model.InfoMessage;
+import pl.zajonz.librarytest.model.Subscriber;
+import pl.zajonz.librarytest.repository.UserRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MessageSenderImplTest {
+
+    @InjectMocks
+    private MessageSenderImpl messageSender;
+    @Mock
+    private MessageTransport messageTransport;
+    @Mock
+    private TelemetryLane telemetryLane;
+    @Mock
+    private InfoMessageMapper infoMessageMapper;
+    @Mock
+    private PerformanceInfoMapper performanceInfoMapper;
+    @Mock
+    private PerformanceInfoBatchPublisher performanceInfoBatchPublisher;
+    @Mock
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(messageSender, "infoQueueName", "info");
+        ReflectionTestUtils.setField(messageSender, "emailQueueName", "info-email");
+        ReflectionTestUtils.setField(messageSender, "emailFanOutPageSize", 500);
+    }
+
+    @Test
+    void testSendInfo_ResultsInSynchronousPublishBypassingLanes() {
+        //given
+        AuditMessage info = AuditMessage.builder()
+                .entityType("book")
+                .action("returned")
+                .entityIds(List.of(1))
+                .build();
+
+        //when
+        messageSender.sendInfo(info);
+
+        //then
+        verify(messageTransport, times(1)).publish("info", info, 0, null);
+        verifyNoInteractions(telemetryLane);
+    }
+
+    @Test
+    void testSendInfo_PublishFails_ResultsInExceptionForRelay() {
+        //given
+        AuditMessage info = AuditMessage.builder().build();
+        doThrow(new AmqpException("broker down")).when(messageTransport).publish("info", info, 0, null);
+
+        //when //then
+        assertThrows(AmqpException.class, () -> messageSender.sendInfo(info));
+    }
+
+    @Test
+    void testSendEmailInfo_ResultsInSynchronousPublishPerSubscriber() {
+        //given
+        BookSnapshot book = new BookSnapshot(1, "Title", "Author", 2, "test");
+        Subscriber subscriber = new Subscriber(3, "user", "user@test.pl", "Test", "Testowy");
+        InfoMessage message = new InfoMessage();
+        when(userRepository.findSubscribersAfter(eq(2), anyInt(), any(Pageable.class)))
+                .thenReturn(List.of(subscriber));
+        when(infoMessageMapper.toInfoMessage(book, subscriber)).thenReturn(message);
+
+        //when
+        messageSender.sendEmailInfo(book);
+
+        //then
+        verify(messageTransport, times(1)).publish("info-email", message, 1, "user");
+        verifyNoInteractions(telemetryLane);
+    }
+
+    @Test
+    void testSendEmailInfo_MoreSubscribersThanPageSize_ResultsInKeysetPagingUntilEmptyPage() {
+        //given
+        ReflectionTestUtils.setField(messageSender, "emailFanOutPageSize", 2);
+        BookSnapshot book = new BookSnapshot(1, "Title", "Author", 2, "test");
+        List<Subscriber> subscribers = List.of(
+                new Subscriber(3, "first", "first@test.pl", "Test", "Testowy"),
+                new Subscriber(5, "second", "second@test.pl", "Test", "Testowy"),
+                new Subscriber(8, "third", "third@test.pl", "Test", "Testowy"),
+                new Subscriber(13, "fourth", "fourth@test.pl", "Test", "Testowy"));
+        when(userRepository.findSubscribersAfter(eq(2), eq(0), any(Pageable.class)))
+                .thenReturn(subscribers.subList(0, 2));
+        when(userRepository.findSubscribersAfter(eq(2), eq(5), any(Pageable.class)))
+                .thenReturn(subscribers.subList(2, 4));
+        when(userRepository.findSubscribersAfter(eq(2), eq(13), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        //when
+        messageSender.sendEmailInfo(book);
+
+        //then
+        InOrder inOrder = inOrder(userRepository);
+        inOrder.verify(userRepository).findSubscribersAfter(eq(2), eq(0), any(Pageable.class));
+        inOrder.verify(userRepository).findSubscribersAfter(eq(2), eq(5), any(Pageable.class));
+        inOrder.verify(userRepository).findSubscribersAfter(eq(2), eq(13), any(Pageable.class));
+        verify(userRepository, times(3)).findSubscribersAfter(anyInt(), anyInt(), any(Pageable.class));
+        for (Subscriber subscriber : subscribers) {
+            verify(infoMessageMapper, times(1)).toInfoMessage(book, subscriber);
+            verify(messageTransport, times(1)).publish(eq("info-email"), any(), eq(1), eq(subscriber.getUsername()));
+        }
+        verify(messageTransport, times(4)).publish(anyString(), any(), anyInt(), anyString());
+    }
+}
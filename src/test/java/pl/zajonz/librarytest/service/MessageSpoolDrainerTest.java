@@ -0,0 +1,49 @@
+package pl.zajonz.librarytest.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MessageSpoolDrainerTest {
+
+    private final MessageSpool messageSpool = mock(MessageSpool.class);
+    private final BrokerHealthGate brokerHealthGate = new BrokerHealthGate();
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final MessageSpoolDrainer drainer = new MessageSpoolDrainer(messageSpool, brokerHealthGate,
+            rabbitTemplate);
+
+    @Test
+    void testDrain_BrokerFailsAfterFirstMessage_ResultsInRecoveryAndRestBeingKept() {
+        //given
+        MessageSpool.SpooledMessage first = spooled("info", 1);
+        MessageSpool.SpooledMessage second = spooled("info-email", 2);
+        when(messageSpool.peek()).thenReturn(first, second);
+        doThrow(new AmqpException("broker down")).when(rabbitTemplate).send(eq("info-email"), any(Message.class));
+        brokerHealthGate.recordFailure(new AmqpException("broker down"));
+
+        //when
+        drainer.drain();
+
+        //then
+        assertFalse(brokerHealthGate.isDegraded());
+        verify(messageSpool, times(1)).remove(first);
+        verify(messageSpool, never()).remove(second);
+    }
+
+    private static MessageSpool.SpooledMessage spooled(String queueName, long nextPosition) {
+        return new MessageSpool.SpooledMessage(queueName, new Message(new byte[]{1}, new MessageProperties()),
+                nextPosition);
+    }
+}
@@ -0,0 +1,151 @@
+package pl.zajonz.librarytest.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageSpoolTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testAppendAndPeek_ResultsInMessageBeingRestored() throws IOException {
+        //given
+        MessageSpool spool = newSpool(4096);
+
+        //when
+        assertTrue(spool.append("info-email", message("{\"title\":\"Test\"}")));
+        MessageSpool.SpooledMessage spooledMessage = spool.peek();
+
+        //then
+        assertEquals("info-email", spooledMessage.queueName());
+        assertEquals("{\"title\":\"Test\"}", new String(spooledMessage.message().getBody(), StandardCharsets.UTF_8));
+        assertEquals(MessageProperties.CONTENT_TYPE_JSON,
+                spooledMessage.message().getMessageProperties().getContentType());
+        assertEquals("pl.zajonz.librarytest.model.InfoMessage",
+                spooledMessage.message().getMessageProperties().getHeader("__TypeId__"));
+        assertEquals(1, spool.getPendingCount());
+        assertFalse(spool.isEmpty());
+    }
+
+    @Test
+    void testRemove_LastMessage_ResultsInSpoolBeingReset() throws IOException {
+        //given
+        MessageSpool spool = newSpool(4096);
+        spool.append("info", message("first"));
+        spool.append("info", message("second"));
+
+        //when
+        spool.remove(spool.peek());
+        MessageSpool.SpooledMessage second = spool.peek();
+        spool.remove(second);
+
+        //then
+        assertEquals("second", new String(second.message().getBody(), StandardCharsets.UTF_8));
+        assertTrue(spool.isEmpty());
+        assertNull(spool.peek());
+        assertEquals(0, spool.getSizeBytes());
+        assertEquals(0, spool.getPendingCount());
+        assertEquals(2, spool.getDrainedCount());
+    }
+
+    @Test
+    void testAppend_SpoolFull_ResultsInMessageBeingDropped() throws IOException {
+        //given
+        MessageSpool spool = newSpool(128);
+
+        //when //then
+        assertFalse(spool.append("info", message("x".repeat(200))));
+        assertEquals(1, spool.getDroppedCount());
+        assertTrue(spool.isEmpty());
+    }
+
+    @Test
+    void testStart_ExistingFile_ResultsInPendingMessagesBeingKept() throws IOException {
+        //given
+        MessageSpool spool = newSpool(4096);
+        spool.append("info", message("survives restart"));
+        spool.stop();
+
+        //when
+        MessageSpool restarted = newSpool(4096);
+
+        //then
+        assertEquals(1, restarted.getPendingCount());
+        assertEquals("survives restart", new String(restarted.peek().message().getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testAppend_SpoolFullWithDrainedRecords_ResultsInPendingRecordsBeingMovedToStart() throws IOException {
+        //given
+        int recordSize = (int) recordSize(message("x".repeat(50)));
+        MessageSpool spool = newSpool("compacted-spool.dat", 16 + 3 * recordSize);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(spool.append("info", message(String.valueOf(i).repeat(50))));
+        }
+        spool.remove(spool.peek());
+        spool.remove(spool.peek());
+        MessageSpool.SpooledMessage third = spool.peek();
+
+        //when
+        boolean appended = spool.append("info", message("3".repeat(50)));
+        spool.remove(third);
+
+        //then
+        assertTrue(appended);
+        assertEquals(0, spool.getDroppedCount());
+        assertEquals(1, spool.getPendingCount());
+        assertEquals("3".repeat(50), new String(spool.peek().message().getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testAppend_SpoolFullWithPendingRecordsOverlappingStart_ResultsInMessageBeingDropped() throws IOException {
+        //given
+        int recordSize = (int) recordSize(message("x".repeat(50)));
+        MessageSpool spool = newSpool("overlapping-spool.dat", 16 + 3 * recordSize);
+        for (int i = 0; i < 3; i++) {
+            spool.append("info", message(String.valueOf(i).repeat(50)));
+        }
+        spool.remove(spool.peek());
+
+        //when //then
+        assertFalse(spool.append("info", message("3".repeat(50))));
+        assertEquals(1, spool.getDroppedCount());
+        assertEquals(2, spool.getPendingCount());
+    }
+
+    private long recordSize(Message message) throws IOException {
+        MessageSpool spool = newSpool("record-size.dat", 4096);
+        spool.append("info", message);
+        return spool.getSizeBytes();
+    }
+
+    private MessageSpool newSpool(int capacity) throws IOException {
+        return newSpool("message-spool.dat", capacity);
+    }
+
+    private MessageSpool newSpool(String fileName, int capacity) throws IOException {
+        MessageSpool spool = new MessageSpool();
+        ReflectionTestUtils.setField(spool, "enabled", true);
+        ReflectionTestUtils.setField(spool, "path", tempDir.resolve(fileName).toString());
+        ReflectionTestUtils.setField(spool, "capacity", capacity);
+        spool.start();
+        return spool;
+    }
+
+    private static Message message(String body) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setHeader("__TypeId__", "pl.zajonz.librarytest.model.InfoMessage");
+        return new Message(body.getBytes(StandardCharsets.UTF_8), properties);
+    }
+}
@@ -0,0 +1,104 @@
+package pl.zajonz.librarytest.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.zajonz.librarytest.model.PerformanceInfo;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PerformanceInfoBatchPublisherTest {
+
+    @InjectMocks
+    private PerformanceInfoBatchPublisher publisher;
+    @Mock
+    private MessageTransport messageTransport;
+    @Captor
+    private ArgumentCaptor<List<PerformanceInfo>> batchCaptor;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(publisher, "performanceBatchQueueName", "info-performance-batch");
+        ReflectionTestUtils.setField(publisher, "enabled", true);
+        ReflectionTestUtils.setField(publisher, "batchSize", 2);
+        ReflectionTestUtils.setField(publisher, "capacity", 3);
+        ReflectionTestUtils.setField(publisher, "flushIntervalMs", 60_000L);
+        publisher.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        publisher.stop();
+    }
+
+    @Test
+    void testSubmit_BufferFull_ResultsInDroppedRecords() {
+        //given
+        ReflectionTestUtils.setField(publisher, "batchSize", 10);
+
+        //when
+        for (int i = 0; i < 5; i++) {
+            publisher.submit(new PerformanceInfo());
+        }
+
+        //then
+        assertEquals(3, publisher.getQueueDepth());
+        assertEquals(2, publisher.getDroppedCount());
+        verify(messageTransport, never()).publish(anyString(), any(Object.class));
+    }
+
+    @Test
+    void testFlush_ResultsInOneMessagePerBatch() {
+        //given
+        ReflectionTestUtils.setField(publisher, "batchSize", 10);
+        publisher.submit(new PerformanceInfo());
+        publisher.submit(new PerformanceInfo());
+        publisher.submit(new PerformanceInfo());
+
+        //when
+        publisher.flush();
+
+        //then
+        verify(messageTransport, times(1)).publish(eq("info-performance-batch"), batchCaptor.capture());
+        assertEquals(3, batchCaptor.getValue().size());
+        assertEquals(3, publisher.getPublishedCount());
+        assertEquals(0, publisher.getQueueDepth());
+    }
+
+    @Test
+    void testSubmit_BatchSizeReached_ResultsInFlush() {
+        //given //when
+        publisher.submit(new PerformanceInfo());
+        publisher.submit(new PerformanceInfo());
+
+        //then
+        verify(messageTransport, timeout(1000).times(1)).publish(eq("info-performance-batch"), any(List.class));
+    }
+
+    @Test
+    void testStop_ResultsInRemainingRecordsBeingFlushed() throws InterruptedException {
+        //given
+        publisher.submit(new PerformanceInfo());
+
+        //when
+        publisher.stop();
+
+        //then
+        verify(messageTransport, times(1)).publish(eq("info-performance-batch"), any(List.class));
+        assertEquals(1, publisher.getPublishedCount());
+    }
+}
@@ -0,0 +1,138 @@
+package pl.zajonz.librarytest.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PublisherConfirmTrackerTest {
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final PublisherConfirmTracker tracker = new PublisherConfirmTracker(rabbitTemplate);
+    private final Message message = new Message(new byte[]{1}, new MessageProperties());
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tracker, "enabled", true);
+        ReflectionTestUtils.setField(tracker, "maxOutstanding", 2);
+        ReflectionTestUtils.setField(tracker, "backpressureTimeoutMs", 10L);
+        ReflectionTestUtils.setField(tracker, "confirmTimeoutMs", 60_000L);
+        ReflectionTestUtils.setField(tracker, "maxAttempts", 2);
+        ReflectionTestUtils.setField(tracker, "retryBackoffMs", 10L);
+        tracker.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        tracker.stop();
+    }
+
+    @Test
+    void testSend_Ack_ResultsInMessageBeingConfirmed() {
+        //given
+        CompletableFuture<Void> confirmed = tracker.send("info", message);
+        CorrelationData correlationData = sentCorrelationData(1);
+        assertFalse(confirmed.isDone());
+
+        //when
+        tracker.handleConfirm(correlationData, true, null);
+
+        //then
+        assertTrue(confirmed.isDone());
+        assertFalse(confirmed.isCompletedExceptionally());
+        assertEquals(1, tracker.getConfirmedCount());
+        assertEquals(0, tracker.getOutstandingCount());
+    }
+
+    @Test
+    void testSend_Nack_ResultsInMessageBeingRetried() {
+        //given
+        tracker.send("info", message);
+
+        //when
+        tracker.handleConfirm(sentCorrelationData(1), false, "nack");
+
+        //then
+        verify(rabbitTemplate, timeout(1000).times(2)).send(eq("info"), eq(message), any(CorrelationData.class));
+        assertEquals(1, tracker.getRetriedCount());
+        assertEquals(1, tracker.getOutstandingCount());
+    }
+
+    @Test
+    void testSend_NackAfterMaxAttempts_ResultsInFailedFuture() {
+        //given
+        CompletableFuture<Void> confirmed = tracker.send("info", message);
+        tracker.handleConfirm(sentCorrelationData(1), false, "nack");
+        verify(rabbitTemplate, timeout(1000).times(2)).send(eq("info"), eq(message), any(CorrelationData.class));
+
+        //when
+        tracker.handleConfirm(sentCorrelationData(2), false, "nack");
+
+        //then
+        assertTrue(confirmed.isCompletedExceptionally());
+        assertEquals(1, tracker.getFailedCount());
+        assertEquals(0, tracker.getOutstandingCount());
+    }
+
+    @Test
+    void testSend_NoConfirm_ResultsInRetryAndPermitReleasedAfterMaxAttempts() {
+        //given
+        ReflectionTestUtils.setField(tracker, "confirmTimeoutMs", 20L);
+
+        //when
+        CompletableFuture<Void> confirmed = tracker.send("info", message);
+
+        //then
+        verify(rabbitTemplate, timeout(1000).times(2)).send(eq("info"), eq(message), any(CorrelationData.class));
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> confirmed.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(AmqpException.class, exception.getCause());
+        assertEquals(2, tracker.getTimedOutCount());
+        assertEquals(0, tracker.getOutstandingCount());
+    }
+
+    @Test
+    void testSendAndAwait_AttemptsRunOut_ShouldThrowAmqpException() {
+        //given
+        ReflectionTestUtils.setField(tracker, "confirmTimeoutMs", 20L);
+
+        //when //then
+        assertThrows(AmqpException.class, () -> tracker.sendAndAwait("info", message));
+        assertEquals(1, tracker.getFailedCount());
+    }
+
+    @Test
+    void testSend_TooManyOutstanding_ShouldThrowAmqpException() {
+        //given
+        tracker.send("info", message);
+        tracker.send("info", message);
+
+        //when //then
+        assertThrows(AmqpException.class, () -> tracker.send("info", message));
+        assertEquals(2, tracker.getOutstandingCount());
+    }
+
+    private CorrelationData sentCorrelationData(int sends) {
+        ArgumentCaptor<CorrelationData> captor = ArgumentCaptor.forClass(CorrelationData.class);
+        verify(rabbitTemplate, times(sends)).send(eq("info"), eq(message), captor.capture());
+        return captor.getAllValues().get(sends - 1);
+    }
+}
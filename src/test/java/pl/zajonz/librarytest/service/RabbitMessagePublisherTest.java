@@ -0,0 +1,148 @@
+package pl.zajonz.librarytest.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.SimpleMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RabbitMessagePublisherTest {
+
+    private static final String EVENT_NAME = "pl.zajonz.librarytest.BrokerPublish";
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MessageSpool messageSpool = mock(MessageSpool.class);
+    private final BrokerHealthGate brokerHealthGate = new BrokerHealthGate();
+    private final PublisherConfirmTracker publisherConfirmTracker = mock(PublisherConfirmTracker.class);
+    private final RabbitMessagePublisher publisher = new RabbitMessagePublisher(rabbitTemplate, meterRegistry,
+            messageSpool, brokerHealthGate, publisherConfirmTracker);
+
+    @TempDir
+    private Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(brokerHealthGate, "slowPublishMs", 500L);
+    }
+
+    @Test
+    void testPublish_ResultsInTimerAndJfrEventBeingRecorded() throws IOException {
+        //given
+        Recording recording = startRecording();
+
+        //when
+        publisher.publish("info-email", "message", 7, "Test123");
+
+        //then
+        List<RecordedEvent> events = stopRecording(recording);
+        assertEquals(1, events.size());
+        assertEquals("info-email", events.get(0).getString("queue"));
+        assertEquals(7, events.get(0).getInt("bookId"));
+        assertEquals("Test123", events.get(0).getString("user"));
+        assertFalse(events.get(0).getBoolean("failed"));
+        assertEquals(1, meterRegistry.get("library.rabbit.publish")
+                .tag("queue", "info-email").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void testPublish_BrokerFailure_ResultsInFailedJfrEventBeingRecorded() throws IOException {
+        //given
+        doThrow(new AmqpException("broker down")).when(rabbitTemplate).convertAndSend(anyString(), any(Object.class));
+        Recording recording = startRecording();
+
+        //when
+        assertThrows(AmqpException.class, () -> publisher.publish("info", "message"));
+
+        //then
+        List<RecordedEvent> events = stopRecording(recording);
+        assertEquals(1, events.size());
+        assertTrue(events.get(0).getBoolean("failed"));
+        assertEquals(1, meterRegistry.get("library.rabbit.publish")
+                .tag("queue", "info").tag("outcome", "failure").timer().count());
+    }
+
+    @Test
+    void testPublish_BrokerFailureWithSpool_ResultsInMessagesBeingSpooled() {
+        //given
+        doThrow(new AmqpException("broker down")).when(rabbitTemplate).convertAndSend(anyString(), any(Object.class));
+        when(rabbitTemplate.getMessageConverter()).thenReturn(new SimpleMessageConverter());
+        when(messageSpool.isEnabled()).thenReturn(true);
+        when(messageSpool.append(anyString(), any(Message.class))).thenReturn(true);
+
+        //when
+        publisher.publish("info", "first");
+        publisher.publish("info", "second");
+
+        //then
+        assertTrue(brokerHealthGate.isDegraded());
+        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), any(Object.class));
+        verify(messageSpool, times(2)).append(eq("info"), any(Message.class));
+    }
+
+    @Test
+    void testPublish_SpoolNotEmptyAndBrokerHealthy_ResultsInDirectPublish() {
+        //given
+        when(messageSpool.isEnabled()).thenReturn(true);
+        when(messageSpool.isEmpty()).thenReturn(false);
+
+        //when
+        publisher.publish("info", "message");
+
+        //then
+        verify(rabbitTemplate, times(1)).convertAndSend("info", (Object) "message");
+        verify(messageSpool, times(0)).append(anyString(), any(Message.class));
+    }
+
+    @Test
+    void testPublish_ConfirmsEnabledAndNotConfirmed_ShouldThrowAmqpException() {
+        //given
+        when(publisherConfirmTracker.isEnabled()).thenReturn(true);
+        when(rabbitTemplate.getMessageConverter()).thenReturn(new SimpleMessageConverter());
+        doThrow(new AmqpException("not confirmed")).when(publisherConfirmTracker)
+                .sendAndAwait(eq("info"), any(Message.class));
+
+        //when //then
+        assertThrows(AmqpException.class, () -> publisher.publish("info", "message"));
+        assertEquals(1, meterRegistry.get("library.rabbit.publish")
+                .tag("queue", "info").tag("outcome", "failure").timer().count());
+    }
+
+    private static Recording startRecording() {
+        Recording recording = new Recording();
+        recording.enable(EVENT_NAME);
+        recording.start();
+        return recording;
+    }
+
+    private List<RecordedEvent> stopRecording(Recording recording) throws IOException {
+        recording.stop();
+        Path file = tempDir.resolve("recording.jfr");
+        recording.dump(file);
+        recording.close();
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(EVENT_NAME))
+                .toList();
+    }
+}
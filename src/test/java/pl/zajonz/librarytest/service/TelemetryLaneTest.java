@@ -0,0 +1,99 @@
+package pl.zajonz.librarytest.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TelemetryLaneTest {
+
+    @Mock
+    private MessageTransport messageTransport;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TelemetryLane telemetryLane;
+
+    @BeforeEach
+    void setUp() {
+        telemetryLane = new TelemetryLane(messageTransport, meterRegistry);
+        ReflectionTestUtils.setField(telemetryLane, "capacity", 2);
+        ReflectionTestUtils.setField(telemetryLane, "priority", 2);
+        ReflectionTestUtils.setField(telemetryLane, "shedding", TelemetryLane.SheddingPolicy.DROP_NEWEST);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        telemetryLane.stop();
+    }
+
+    @Test
+    void testPublish_LaneDisabled_ResultsInPublishingOnCallerThread() {
+        //given
+        telemetryLane.start();
+
+        //when
+        telemetryLane.publish("info-performance", "record", 0, "user");
+
+        //then
+        verify(messageTransport, times(1)).publish("info-performance", "record", 0, "user");
+    }
+
+    @Test
+    void testPublish_LaneEnabled_ResultsInPublishingOnLaneAndRecordingLatency() {
+        //given
+        ReflectionTestUtils.setField(telemetryLane, "enabled", true);
+        telemetryLane.start();
+
+        //when
+        telemetryLane.publish("info-performance", "record", 0, "user");
+
+        //then
+        verify(messageTransport, timeout(1000).times(1)).publish("info-performance", "record", 0, "user");
+        assertEquals(1, meterRegistry.get("library.telemetry.lane.latency").timer().count());
+    }
+
+    @Test
+    void testPublish_LaneFull_ResultsInNewestRecordBeingDropped() throws InterruptedException {
+        //given
+        ReflectionTestUtils.setField(telemetryLane, "enabled", true);
+        telemetryLane.start();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            blocked.countDown();
+            release.await(1, TimeUnit.SECONDS);
+            return null;
+        }).when(messageTransport).publish(eq("info-performance"), any(), anyInt(), any());
+        telemetryLane.publish("info-performance", "record 0", 0, "user");
+        assertTrue(blocked.await(1, TimeUnit.SECONDS));
+        telemetryLane.publish("info-performance", "record 1", 0, "user");
+        telemetryLane.publish("info-performance", "record 2", 0, "user");
+
+        //when
+        telemetryLane.publish("info-performance", "record 3", 0, "user");
+        release.countDown();
+
+        //then
+        assertEquals(1, telemetryLane.getDroppedCount());
+        verify(messageTransport, timeout(1000).times(3)).publish(eq("info-performance"), any(), anyInt(), any());
+        verify(messageTransport, never()).publish(eq("info-performance"), eq("record 3"), anyInt(), any());
+    }
+}